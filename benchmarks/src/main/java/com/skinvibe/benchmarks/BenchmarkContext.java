@@ -0,0 +1,176 @@
+package com.skinvibe.benchmarks;
+
+import com.skinvibe.SkinVibeApplication;
+import com.skinvibe.model.Category;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.User;
+import com.skinvibe.repository.ProductRepository;
+import com.skinvibe.service.CartService;
+import com.skinvibe.service.CategoryService;
+import com.skinvibe.service.ProductSearchIndex;
+import com.skinvibe.service.UserService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Boots the application on an in-memory H2 database and seeds a deterministic catalog,
+ * so every benchmark measures the real service beans against a known data volume.
+ */
+public class BenchmarkContext implements AutoCloseable {
+    
+    private static final long SEED = 42L;
+    private static final int CATEGORY_COUNT = 8;
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final int STOCK_PER_PRODUCT = 1_000_000;
+    
+    static final String[] VOCABULARY = {
+            "hydrating", "gentle", "vitamin", "retinol", "niacinamide", "hyaluronic", "ceramide", "peptide",
+            "serum", "cleanser", "moisturizer", "toner", "sunscreen", "mask", "exfoliant", "balm",
+            "glow", "repair", "calming", "brightening", "oil", "gel", "cream", "foam",
+            "aloe", "green", "tea", "rose", "charcoal", "clay", "squalane", "collagen"
+    };
+    
+    private final ConfigurableApplicationContext context;
+    
+    private final List<Long> productIds = new ArrayList<>();
+    
+    private int userCount;
+    
+    public BenchmarkContext(int catalogSize) {
+        this(catalogSize, new String[0]);
+    }
+    
+    /**
+     * @param extraArguments further {@code --name=value} properties, for settings not fixed below
+     */
+    public BenchmarkContext(int catalogSize, String... extraArguments) {
+        // Passed as arguments so they take precedence over application.properties
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,YEAR,DAY",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--spring.thymeleaf.cache=true",
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.skinvibe=WARN",
+                "--logging.level.org.springframework.security=WARN"));
+        arguments.addAll(List.of(extraArguments));
+        context = new SpringApplicationBuilder(SkinVibeApplication.class).run(arguments.toArray(new String[0]));
+        seedCatalog(catalogSize);
+    }
+    
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+    
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+    
+    public String getBaseUrl() {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+    
+    public List<Long> getProductIds() {
+        return productIds;
+    }
+    
+    public Long createUser() {
+        int n = ++userCount;
+        User user = new User();
+        user.setUsername("bench" + n);
+        user.setEmail("bench" + n + "@skinvibe.com");
+        user.setPassword("bench123");
+        user.setFirstName("Bench");
+        user.setLastName("User " + n);
+        return bean(UserService.class).saveUser(user).getId();
+    }
+    
+    /**
+     * Puts {@code cartSize} distinct products, spread across the catalog, into the user's cart.
+     */
+    public void fillCart(Long userId, int cartSize) {
+        CartService cartService = bean(CartService.class);
+        int stride = Math.max(1, productIds.size() / cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            cartService.addToCart(userId, productIds.get((i * stride) % productIds.size()), 1 + i % 3);
+        }
+    }
+    
+    private void seedCatalog(int catalogSize) {
+        CategoryService categoryService = bean(CategoryService.class);
+        List<Long> categoryIds = new ArrayList<>();
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            Category category = new Category("Benchmark Category " + i, "Seeded for benchmarks");
+            categoryIds.add(categoryService.saveCategory(category).getId());
+        }
+        
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+        Random random = new Random(SEED);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (int i = 0; i < catalogSize; i++) {
+            batch.add(new Object[] {
+                    words(random, 3) + " " + i,
+                    words(random, 20),
+                    BigDecimal.valueOf(500 + random.nextInt(9500), 2),
+                    STOCK_PER_PRODUCT,
+                    "BENCH-" + i,
+                    true,
+                    random.nextInt(20) == 0,
+                    words(random, 8),
+                    now,
+                    now,
+                    categoryIds.get(random.nextInt(categoryIds.size()))
+            });
+            if (batch.size() == INSERT_BATCH_SIZE || i == catalogSize - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, stock_quantity, sku, is_active, "
+                        + "is_featured, ingredients, created_at, updated_at, category_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        
+        // Rows inserted behind JPA's back still have to reach the search index
+        ProductRepository productRepository = bean(ProductRepository.class);
+        ProductSearchIndex searchIndex = bean(ProductSearchIndex.class);
+        Page<Product> page;
+        int pageNumber = 0;
+        do {
+            page = productRepository.findAll(PageRequest.of(pageNumber++, INSERT_BATCH_SIZE, Sort.by("id")));
+            for (Product product : page) {
+                searchIndex.index(product);
+                productIds.add(product.getId());
+            }
+        } while (page.hasNext());
+    }
+    
+    static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return text.toString();
+    }
+    
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.skinvibe.benchmarks;
+
+import com.skinvibe.service.CartService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartTotalBenchmark {
+    
+    @Param({"10000"})
+    public int catalogSize;
+    
+    @Param({"1", "10", "50"})
+    public int cartSize;
+    
+    private BenchmarkContext context;
+    
+    private CartService cartService;
+    
+    private Long userId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext(catalogSize);
+        cartService = context.bean(CartService.class);
+        userId = context.createUser();
+        context.fillCart(userId, cartSize);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public BigDecimal getCartTotal() {
+        return cartService.getCartTotal(userId);
+    }
+}
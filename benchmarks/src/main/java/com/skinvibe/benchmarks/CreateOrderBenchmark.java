@@ -0,0 +1,53 @@
+package com.skinvibe.benchmarks;
+
+import com.skinvibe.model.Order;
+import com.skinvibe.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout of a full cart. The cart is refilled before every invocation, outside the measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateOrderBenchmark {
+    
+    @Param({"10000"})
+    public int catalogSize;
+    
+    @Param({"1", "10", "50"})
+    public int cartSize;
+    
+    private BenchmarkContext context;
+    
+    private OrderService orderService;
+    
+    private Long userId;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext(catalogSize);
+        orderService = context.bean(OrderService.class);
+        userId = context.createUser();
+    }
+    
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        context.fillCart(userId, cartSize);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public Order createOrder() {
+        return orderService.createOrder(userId, null, null, Order.PaymentMethod.CREDIT_CARD, null);
+    }
+}
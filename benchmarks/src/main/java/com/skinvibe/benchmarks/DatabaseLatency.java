@@ -0,0 +1,80 @@
+package com.skinvibe.benchmarks;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Delays every statement execution, commit and rollback by {@code benchmark.db-latency}, standing in
+ * for the round trip to a MySQL server that the in-memory H2 database does not have. Added to the
+ * application as an extra source through {@code spring.main.sources}.
+ */
+public class DatabaseLatency implements BeanPostProcessor, EnvironmentAware {
+    
+    private static final Set<Class<?>> STATEMENT_TYPES = Set.of(Statement.class, PreparedStatement.class, CallableStatement.class);
+    
+    private Duration latency = Duration.ZERO;
+    
+    @Override
+    public void setEnvironment(Environment environment) {
+        latency = environment.getProperty("benchmark.db-latency", Duration.class, Duration.ZERO);
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || latency.isZero()) {
+            return bean;
+        }
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return delayed(Connection.class, super.getConnection());
+            }
+            
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return delayed(Connection.class, super.getConnection(username, password));
+            }
+        };
+    }
+    
+    private <T> T delayed(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            String name = method.getName();
+            // Hibernate tracks statements in hash maps, so a proxy must equal itself
+            if (name.equals("equals")) {
+                return proxy == args[0];
+            }
+            if (name.startsWith("execute") || name.equals("commit") || name.equals("rollback")) {
+                Thread.sleep(latency);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            if (result != null && STATEMENT_TYPES.contains(method.getReturnType())) {
+                return delayed(uncheckedType(method.getReturnType()), result);
+            }
+            return result;
+        }));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Class<Object> uncheckedType(Class<?> type) {
+        return (Class<Object>) type;
+    }
+}
@@ -0,0 +1,61 @@
+package com.skinvibe.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second for an anonymous GET / over HTTP, with and without the fragment cache.
+ * Several client threads share one application, so the figure includes the servlet container,
+ * the per-request stamp read and rendering of whatever the cache misses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class HomePageBenchmark {
+    
+    @Param({"10000"})
+    public int catalogSize;
+    
+    @Param({"true", "false"})
+    public boolean fragmentCache;
+    
+    private BenchmarkContext context;
+    
+    private HttpClient client;
+    
+    private HttpRequest home;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext(catalogSize, "--skinvibe.fragment-cache.enabled=" + fragmentCache);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        home = HttpRequest.newBuilder(URI.create(context.getBaseUrl() + "/")).GET().build();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public int home() throws Exception {
+        HttpResponse<String> response = client.send(home, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET / returned " + response.statusCode());
+        }
+        return response.body().length();
+    }
+}
@@ -0,0 +1,283 @@
+package com.skinvibe.benchmarks;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP load test comparing request handling on platform threads with the virtual profile. For each
+ * mode the application is booted on H2 with a simulated database round trip ({@link DatabaseLatency}),
+ * then closed-loop users drive two scenarios in turn:
+ * <ul>
+ *     <li>anonymous GET /products on random pages</li>
+ *     <li>signed-in checkout: add to cart, open the checkout page, POST /orders/place</li>
+ * </ul>
+ * Throughput and latency percentiles of the measured request are printed per mode. Options are
+ * {@code name=value} arguments: users, warmup, duration, dbLatency, catalogSize and modes.
+ */
+public class LoadTest {
+    
+    private static final Pattern ADDRESS_ID = Pattern.compile("name=\"shippingAddressId\" value=\"(\\d+)\"");
+    private static final Pattern IDEMPOTENCY_KEY = Pattern.compile("name=\"idempotencyKey\" value=\"([^\"]+)\"");
+    private static final Pattern ORDER_PAGE = Pattern.compile("/orders/\\d+$");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int PRODUCT_PAGES = 10;
+    
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    
+    private final int users;
+    
+    private final Duration warmup;
+    
+    private final Duration duration;
+    
+    private LoadTest(int users, Duration warmup, Duration duration) {
+        this.users = users;
+        this.warmup = warmup;
+        this.duration = duration;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+        int users = Integer.parseInt(options.getOrDefault("users", "400"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        String dbLatency = options.getOrDefault("dbLatency", "2ms");
+        int catalogSize = Integer.parseInt(options.getOrDefault("catalogSize", "10000"));
+        List<String> modes = Arrays.asList(options.getOrDefault("modes", "platform,virtual").split(","));
+        
+        LoadTest loadTest = new LoadTest(users, warmup, duration);
+        List<Result> results = new ArrayList<>();
+        for (String mode : modes) {
+            System.out.println("Booting with " + mode + " threads, " + dbLatency + " per database round trip");
+            try (BenchmarkContext context = new BenchmarkContext(catalogSize,
+                    "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                    "--spring.main.sources=" + DatabaseLatency.class.getName(),
+                    "--benchmark.db-latency=" + dbLatency)) {
+                results.add(loadTest.run(mode, "GET /products", loadTest.browsing(context)));
+                results.add(loadTest.run(mode, "POST /orders/place", loadTest.checkout(context)));
+            }
+        }
+        
+        System.out.printf("%n%-9s %-19s %6s %9s %8s %8s %8s %8s %8s %7s%n",
+                "mode", "request", "users", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        for (Result result : results) {
+            System.out.printf("%-9s %-19s %6d %9.1f %8.1f %8.1f %8.1f %8.1f %8.1f %7d%n",
+                    result.mode(), result.request(), users, result.throughput(), result.percentile(50),
+                    result.percentile(90), result.percentile(99), result.percentile(99.9), result.percentile(100),
+                    result.errors());
+        }
+        System.exit(0);
+    }
+    
+    private List<Scenario> browsing(BenchmarkContext context) {
+        String baseUrl = context.getBaseUrl();
+        List<Scenario> scenarios = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            scenarios.add(recorder -> {
+                URI uri = URI.create(baseUrl + "/products?page=" + ThreadLocalRandom.current().nextInt(PRODUCT_PAGES));
+                HttpResponse<String> response = recorder.time(() -> send(HttpRequest.newBuilder(uri).GET(), null));
+                recorder.completed(response.statusCode() == 200);
+            });
+        }
+        return scenarios;
+    }
+    
+    // Users are created in-process and signed in with an address over HTTP before anything is measured
+    private List<Scenario> checkout(BenchmarkContext context) throws Exception {
+        String baseUrl = context.getBaseUrl();
+        List<Long> productIds = context.getProductIds();
+        List<Future<String>> sessions = new ArrayList<>(users);
+        try (ExecutorService executor = userThreads()) {
+            for (int i = 0; i < users; i++) {
+                context.createUser();
+                String username = "bench" + (i + 1);
+                sessions.add(executor.submit(() -> signIn(baseUrl, username)));
+            }
+        }
+        
+        List<Scenario> scenarios = new ArrayList<>(users);
+        for (Future<String> session : sessions) {
+            String cookie = session.get();
+            scenarios.add(recorder -> {
+                Long productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+                send(post(baseUrl + "/cart/add", "productId=" + productId + "&quantity=1"), cookie);
+                String page = send(HttpRequest.newBuilder(URI.create(baseUrl + "/orders/checkout")).GET(), cookie).body();
+                String form = "paymentMethod=CREDIT_CARD&shippingAddressId=" + find(ADDRESS_ID, page)
+                        + "&idempotencyKey=" + find(IDEMPOTENCY_KEY, page);
+                HttpResponse<String> response = recorder.time(() -> send(post(baseUrl + "/orders/place", form), cookie));
+                String location = response.headers().firstValue("Location").orElse("");
+                recorder.completed(response.statusCode() == 302 && ORDER_PAGE.matcher(location).find());
+            });
+        }
+        return scenarios;
+    }
+    
+    private String signIn(String baseUrl, String username) throws Exception {
+        HttpResponse<String> login = send(post(baseUrl + "/auth/login", "username=" + username + "&password=bench123"), null);
+        String cookie = login.headers().firstValue("Set-Cookie").map(value -> value.split(";", 2)[0])
+                .orElseThrow(() -> new RuntimeException("No session for " + username));
+        send(post(baseUrl + "/addresses/add", "streetAddress=1+Bench+Street&city=Bench&state=BS&postalCode=10001"
+                + "&country=Benchland&addressType=SHIPPING"), cookie);
+        return cookie;
+    }
+    
+    private Result run(String mode, String request, List<Scenario> scenarios) throws Exception {
+        System.out.println("  " + request + ": " + users + " users, " + warmup.toSeconds() + "s warm-up, "
+                + duration.toSeconds() + "s measured");
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        
+        List<Recorder> recorders = new ArrayList<>(scenarios.size());
+        try (ExecutorService executor = userThreads()) {
+            for (Scenario scenario : scenarios) {
+                Recorder recorder = new Recorder(measureFrom);
+                recorders.add(recorder);
+                executor.execute(() -> {
+                    while (System.nanoTime() < end) {
+                        recorder.begin();
+                        try {
+                            scenario.iterate(recorder);
+                        } catch (Exception e) {
+                            recorder.completed(false);
+                        }
+                    }
+                });
+            }
+        }
+        return Result.of(mode, request, recorders, Duration.ofNanos(end - measureFrom));
+    }
+    
+    // Platform threads: virtual ones would share the server's carrier threads, which are what is being compared
+    private static ExecutorService userThreads() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name("load-user-", 0).daemon().factory());
+    }
+    
+    private HttpResponse<String> send(HttpRequest.Builder request, String cookie) throws Exception {
+        request.timeout(REQUEST_TIMEOUT);
+        if (cookie != null) {
+            request.header("Cookie", cookie);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private static HttpRequest.Builder post(String url, String form) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+    }
+    
+    private static String find(Pattern pattern, String page) {
+        Matcher matcher = pattern.matcher(page);
+        if (!matcher.find()) {
+            throw new RuntimeException("Checkout page has no " + pattern.pattern());
+        }
+        return matcher.group(1);
+    }
+    
+    private interface Scenario {
+        
+        void iterate(Recorder recorder) throws Exception;
+    }
+    
+    private interface Request<T> {
+        
+        T send() throws Exception;
+    }
+    
+    /**
+     * Latencies of one user's measured requests, and failed iterations, counted once the warm-up is over.
+     */
+    private static final class Recorder {
+        
+        private final long measureFrom;
+        
+        private long[] latencies = new long[1024];
+        
+        private int count;
+        
+        private int errors;
+        
+        private long iterationStarted;
+        
+        private long latency;
+        
+        Recorder(long measureFrom) {
+            this.measureFrom = measureFrom;
+        }
+        
+        void begin() {
+            iterationStarted = System.nanoTime();
+        }
+        
+        <T> T time(Request<T> request) throws Exception {
+            long started = System.nanoTime();
+            T response = request.send();
+            latency = System.nanoTime() - started;
+            return response;
+        }
+        
+        // Failures are counted but not timed, so the percentiles describe successful requests only
+        void completed(boolean success) {
+            if (iterationStarted < measureFrom) {
+                return;
+            }
+            if (!success) {
+                errors++;
+            } else {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = latency;
+            }
+        }
+    }
+    
+    private record Result(String mode, String request, long[] latencies, int errors, Duration measured) {
+        
+        static Result of(String mode, String request, List<Recorder> recorders, Duration measured) {
+            long[] all = recorders.stream()
+                    .flatMapToLong(recorder -> Arrays.stream(recorder.latencies, 0, recorder.count))
+                    .sorted()
+                    .toArray();
+            int errors = recorders.stream().mapToInt(recorder -> recorder.errors).sum();
+            return new Result(mode, request, all, errors, measured);
+        }
+        
+        double throughput() {
+            return latencies.length / (measured.toNanos() / 1e9);
+        }
+        
+        double percentile(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.skinvibe.benchmarks;
+
+import com.skinvibe.service.CategoryService;
+import com.skinvibe.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders products/list.html through the application's Thymeleaf view with the model the
+ * controller builds. The model is loaded once, so only template rendering is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductListRenderBenchmark {
+    
+    @Param({"10000"})
+    public int catalogSize;
+    
+    @Param({"12", "48"})
+    public int pageSize;
+    
+    private BenchmarkContext context;
+    
+    private View view;
+    
+    private final Map<String, Object> model = new HashMap<>();
+    
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BenchmarkContext(catalogSize);
+        view = context.bean(ThymeleafViewResolver.class).resolveViewName("products/list", Locale.US);
+        model.put("products", context.bean(ProductService.class).getAllActiveProducts(PageRequest.of(0, pageSize)));
+        model.put("categories", context.bean(CategoryService.class).getAllActiveCategories());
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public String render() throws Exception {
+        WebApplicationContext webContext = (WebApplicationContext) context.getContext();
+        MockHttpServletRequest request = new MockHttpServletRequest(webContext.getServletContext(), "GET", "/products");
+        request.setAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, webContext);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        view.render(new HashMap<>(model), request, response);
+        return response.getContentAsString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.skinvibe.benchmarks;
+
+import com.skinvibe.model.ProductCard;
+import com.skinvibe.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paged search as served by /search. Sample mode reports the latency distribution,
+ * including p99, for one- to three-word queries drawn from the catalog vocabulary, up to the
+ * 500k-product catalog the p99 target is set for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ProductSearchBenchmark {
+    
+    private static final int QUERY_COUNT = 256;
+    
+    @Param({"10000", "100000", "500000"})
+    public int catalogSize;
+    
+    private BenchmarkContext context;
+    
+    private ProductService productService;
+    
+    private final String[] queries = new String[QUERY_COUNT];
+    
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext(catalogSize);
+        productService = context.bean(ProductService.class);
+        Random random = new Random(7);
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = BenchmarkContext.words(random, 1 + random.nextInt(3));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public Page<ProductCard> searchProducts() {
+        String query = queries[next++ & (QUERY_COUNT - 1)];
+        return productService.searchProducts(query, PageRequest.of(0, 12));
+    }
+}
@@ -0,0 +1,24 @@
+package com.skinvibe.config;
+
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+@Configuration
+public class BulkStatusJobConfig {
+    
+    // A single thread, so two jobs never contend for the same order rows; later jobs wait in the queue
+    @Bean
+    public ThreadPoolTaskExecutor bulkStatusExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.corePoolSize(1)
+                .maxPoolSize(1)
+                .queueCapacity(Integer.MAX_VALUE)
+                .threadNamePrefix("bulk-order-status-")
+                .awaitTermination(true)
+                .awaitTerminationPeriod(Duration.ofSeconds(10))
+                .build();
+    }
+}
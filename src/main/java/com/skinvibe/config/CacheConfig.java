@@ -0,0 +1,14 @@
+package com.skinvibe.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    public static final String ACTIVE_CATEGORIES = "activeCategories";
+    public static final String ALL_CATEGORIES = "allCategories";
+    public static final String FEATURED_PRODUCTS = "featuredProducts";
+    public static final String FRAGMENTS = "fragments";
+}
@@ -0,0 +1,390 @@
+package com.skinvibe.config;
+
+import com.skinvibe.model.Category;
+import com.skinvibe.model.Order;
+import com.skinvibe.service.CatalogVersion;
+import com.skinvibe.service.CategoryService;
+import com.skinvibe.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk-loads a large synthetic data set for load testing: users, a catalog, open carts and
+ * historical orders. Enabled by the "generator" profile. Rows are written with batched JDBC in
+ * parallel chunks; each chunk draws from its own seeded Random and owns a fixed id range, so the
+ * same seed and end date always produce the same data regardless of thread scheduling.
+ */
+@Component
+@ConditionalOnProperty(name = "skinvibe.generator.enabled", havingValue = "true")
+public class DataGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DataGenerator.class);
+
+    private static final String USERNAME_PREFIX = "gen-user-";
+    private static final String SKU_PREFIX = "GEN-";
+    private static final String PASSWORD = "user123";
+    private static final int MAX_ITEMS_PER_ORDER = 5;
+    private static final int MAX_ITEMS_PER_CART = 5;
+
+    // Must match allocationSize of the @TableGenerator mappings
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String[] CATEGORIES = {
+            "Lip Care", "Body Care", "Exfoliators", "Face Oils", "Acne Care", "Hair Care", "Men's Care", "Sets & Kits"
+    };
+
+    private static final String[] WORDS = {
+            "hydrating", "gentle", "vitamin", "retinol", "niacinamide", "hyaluronic", "ceramide", "peptide",
+            "serum", "cleanser", "moisturizer", "toner", "sunscreen", "mask", "exfoliant", "balm",
+            "glow", "repair", "calming", "brightening", "oil", "gel", "cream", "foam",
+            "aloe", "green", "tea", "rose", "charcoal", "clay", "squalane", "collagen"
+    };
+
+    private static final String[] FIRST_NAMES = {
+            "Ava", "Liam", "Maya", "Noah", "Zara", "Ethan", "Isla", "Omar", "Lena", "Ravi", "Sofia", "Kai"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Patel", "Smith", "Garcia", "Chen", "Okafor", "Novak", "Silva", "Kim", "Haddad", "Brown", "Rossi", "Ito"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${skinvibe.generator.seed:42}")
+    private long seed;
+
+    @Value("${skinvibe.generator.users:10000}")
+    private int userCount;
+
+    @Value("${skinvibe.generator.products:50000}")
+    private int productCount;
+
+    @Value("${skinvibe.generator.carts:2000}")
+    private int cartCount;
+
+    @Value("${skinvibe.generator.orders:1000000}")
+    private int orderCount;
+
+    @Value("${skinvibe.generator.history-days:730}")
+    private int historyDays;
+
+    // Orders are dated backwards from this day; pin it to reproduce a data set exactly
+    @Value("${skinvibe.generator.end-date:}")
+    private String endDate;
+
+    @Value("${skinvibe.generator.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${skinvibe.generator.threads:4}")
+    private int threads;
+
+    @Override
+    public void run(String... args) throws Exception {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username = ?", Integer.class, USERNAME_PREFIX + 1);
+        if (existing != null && existing > 0) {
+            log.info("Generated data already present, skipping");
+            return;
+        }
+
+        LocalDateTime end = (endDate.isBlank() ? LocalDate.now() : LocalDate.parse(endDate)).atStartOfDay();
+        long started = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long[] userIds = generateUsers(executor, end);
+            List<Long> categoryIds = generateCategories();
+            long[] productIds = generateProducts(executor, categoryIds, end);
+            BigDecimal[] prices = loadPrices(productIds);
+            generateCarts(executor, userIds, productIds, end);
+            generateOrders(executor, userIds, productIds, prices, end);
+        } finally {
+            executor.shutdown();
+            // Rows went in through JDBC, so anything cached or rendered meanwhile may be stale
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+            catalogVersion.changed();
+        }
+        log.info("Data generation completed in {} ms", System.currentTimeMillis() - started);
+    }
+
+    private long[] generateUsers(ExecutorService executor, LocalDateTime end) throws Exception {
+        // Every generated user shares the same password, so it is hashed once
+        String passwordHash = userService.hashPassword(PASSWORD);
+        Timestamp createdAt = Timestamp.valueOf(end.minusDays(historyDays));
+
+        runChunks(executor, userCount, (random, from, to) -> {
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                int n = i + 1;
+                rows.add(new Object[] {
+                        USERNAME_PREFIX + n,
+                        USERNAME_PREFIX + n + "@example.com",
+                        passwordHash,
+                        pick(random, FIRST_NAMES),
+                        pick(random, LAST_NAMES),
+                        "USER",
+                        createdAt,
+                        createdAt
+                });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password, first_name, last_name, role, "
+                    + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        });
+
+        long[] userIds = loadIds("SELECT id FROM users WHERE username LIKE ? ORDER BY id", USERNAME_PREFIX + "%");
+        log.info("Generated {} users", userIds.length);
+        return userIds;
+    }
+
+    private List<Long> generateCategories() {
+        List<Long> categoryIds = new ArrayList<>();
+        for (String name : CATEGORIES) {
+            categoryIds.add(categoryService.saveCategory(new Category(name, "Generated " + name.toLowerCase())).getId());
+        }
+        return categoryIds;
+    }
+
+    private long[] generateProducts(ExecutorService executor, List<Long> categoryIds, LocalDateTime end) throws Exception {
+        runChunks(executor, productCount, (random, from, to) -> {
+            List<Object[]> rows = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                Timestamp createdAt = Timestamp.valueOf(end.minusMinutes(random.nextInt(historyDays * 24 * 60)));
+                rows.add(new Object[] {
+                        capitalize(words(random, 3)),
+                        capitalize(words(random, 25)) + ".",
+                        BigDecimal.valueOf(499 + random.nextInt(9500), 2),
+                        50 + random.nextInt(500),
+                        SKU_PREFIX + (i + 1),
+                        true,
+                        random.nextInt(50) == 0,
+                        words(random, 8),
+                        createdAt,
+                        createdAt,
+                        categoryIds.get(random.nextInt(categoryIds.size()))
+                });
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, stock_quantity, sku, is_active, "
+                    + "is_featured, ingredients, created_at, updated_at, category_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        });
+
+        long[] productIds = loadIds("SELECT id FROM products WHERE sku LIKE ? ORDER BY id", SKU_PREFIX + "%");
+        log.info("Generated {} products", productIds.length);
+        return productIds;
+    }
+
+    private void generateCarts(ExecutorService executor, long[] userIds, long[] productIds, LocalDateTime end) throws Exception {
+        int carts = Math.min(cartCount, userIds.length);
+        long baseId = reserveIds("cart_items", "cart_items", (long) carts * MAX_ITEMS_PER_CART);
+        Timestamp createdAt = Timestamp.valueOf(end);
+
+        runChunks(executor, carts, (random, from, to) -> {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                int lines = 1 + random.nextInt(MAX_ITEMS_PER_CART);
+                int first = random.nextInt(productIds.length);
+                for (int line = 0; line < lines; line++) {
+                    rows.add(new Object[] {
+                            baseId + (long) i * MAX_ITEMS_PER_CART + line + 1,
+                            1 + random.nextInt(3),
+                            createdAt,
+                            createdAt,
+                            userIds[i],
+                            productIds[(first + line) % productIds.length]
+                    });
+                }
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO cart_items (id, quantity, created_at, updated_at, user_id, product_id) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        });
+        log.info("Generated {} carts", carts);
+    }
+
+    private void generateOrders(ExecutorService executor, long[] userIds, long[] productIds, BigDecimal[] prices,
+                                LocalDateTime end) throws Exception {
+        long baseOrderId = reserveIds("orders", "orders", orderCount);
+        long baseItemId = reserveIds("order_items", "order_items", (long) orderCount * MAX_ITEMS_PER_ORDER);
+        Order.PaymentMethod[] paymentMethods = Order.PaymentMethod.values();
+
+        runChunks(executor, orderCount, (random, from, to) -> {
+            List<Object[]> orders = new ArrayList<>(to - from);
+            List<Object[]> items = new ArrayList<>((to - from) * 3);
+            for (int i = from; i < to; i++) {
+                long orderId = baseOrderId + i + 1;
+                LocalDateTime createdAt = end.minusSeconds(random.nextInt(historyDays * 86_400));
+                Timestamp created = Timestamp.valueOf(createdAt);
+
+                int lines = 1 + random.nextInt(MAX_ITEMS_PER_ORDER);
+                int first = random.nextInt(productIds.length);
+                BigDecimal total = BigDecimal.ZERO;
+                for (int line = 0; line < lines; line++) {
+                    int product = (first + line * 7) % productIds.length;
+                    int quantity = 1 + random.nextInt(3);
+                    BigDecimal lineTotal = prices[product].multiply(BigDecimal.valueOf(quantity));
+                    total = total.add(lineTotal);
+                    items.add(new Object[] {
+                            baseItemId + (long) i * MAX_ITEMS_PER_ORDER + line + 1,
+                            quantity,
+                            prices[product],
+                            lineTotal,
+                            created,
+                            created,
+                            orderId,
+                            productIds[product]
+                    });
+                }
+
+                // Older orders have completed their lifecycle; recent ones are still in flight
+                long ageDays = Duration.between(createdAt, end).toDays();
+                Order.OrderStatus status;
+                if (ageDays >= 14) {
+                    status = random.nextInt(10) == 0 ? Order.OrderStatus.CANCELLED : Order.OrderStatus.DELIVERED;
+                } else if (ageDays >= 3) {
+                    status = Order.OrderStatus.SHIPPED;
+                } else {
+                    status = pick(random, new Order.OrderStatus[] {
+                            Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED, Order.OrderStatus.PROCESSING });
+                }
+                Order.PaymentStatus paymentStatus = switch (status) {
+                    case CANCELLED -> Order.PaymentStatus.REFUNDED;
+                    case PENDING -> Order.PaymentStatus.PENDING;
+                    default -> Order.PaymentStatus.PAID;
+                };
+                boolean shipped = status == Order.OrderStatus.SHIPPED || status == Order.OrderStatus.DELIVERED;
+
+                orders.add(new Object[] {
+                        orderId,
+                        "SKV-G" + orderId,
+                        total,
+                        BigDecimal.ZERO,
+                        BigDecimal.ZERO,
+                        BigDecimal.ZERO,
+                        status.name(),
+                        paymentStatus.name(),
+                        pick(random, paymentMethods).name(),
+                        shipped ? Timestamp.valueOf(createdAt.plusDays(2)) : null,
+                        status == Order.OrderStatus.DELIVERED ? Timestamp.valueOf(createdAt.plusDays(5)) : null,
+                        created,
+                        created,
+                        userIds[random.nextInt(userIds.length)]
+                });
+            }
+            transactionTemplate.executeWithoutResult(tx -> {
+                jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_number, total_amount, shipping_cost, tax_amount, "
+                        + "discount_amount, order_status, payment_status, payment_method, shipped_at, delivered_at, "
+                        + "created_at, updated_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", orders);
+                jdbcTemplate.batchUpdate("INSERT INTO order_items (id, quantity, unit_price, total_price, created_at, "
+                        + "updated_at, order_id, product_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", items);
+            });
+        });
+        log.info("Generated {} orders", orderCount);
+    }
+
+    /**
+     * Claims {@code count} ids past everything already used or handed out for a pooled table
+     * generator and moves the generator beyond them. Returns the id just below the claimed range.
+     */
+    private long reserveIds(String table, String generatorName, long count) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        List<Long> nextValues = jdbcTemplate.queryForList(
+                "SELECT next_value FROM id_generators WHERE generator_name = ?", Long.class, generatorName);
+        long baseId = Math.max(maxId, nextValues.isEmpty() ? 0 : nextValues.get(0));
+
+        // The pooled optimizer hands out (next_value - allocationSize, next_value], so leave one block of headroom
+        long nextValue = baseId + count + ID_ALLOCATION_SIZE;
+        if (nextValues.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO id_generators (generator_name, next_value) VALUES (?, ?)", generatorName, nextValue);
+        } else {
+            jdbcTemplate.update("UPDATE id_generators SET next_value = ? WHERE generator_name = ?", nextValue, generatorName);
+        }
+        return baseId;
+    }
+
+    private long[] loadIds(String sql, Object... args) {
+        return jdbcTemplate.queryForList(sql, Long.class, args).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private BigDecimal[] loadPrices(long[] productIds) {
+        List<BigDecimal> prices = jdbcTemplate.queryForList(
+                "SELECT price FROM products WHERE sku LIKE ? ORDER BY id", BigDecimal.class, SKU_PREFIX + "%");
+        if (prices.size() != productIds.length) {
+            throw new RuntimeException("Generated products changed while loading prices");
+        }
+        return prices.toArray(new BigDecimal[0]);
+    }
+
+    private void runChunks(ExecutorService executor, int total, Chunk chunk) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0, index = 0; from < total; from += batchSize, index++) {
+            int start = from;
+            int stop = Math.min(total, from + batchSize);
+            Random random = new Random(seed * 31 + index);
+            futures.add(executor.submit(() -> {
+                chunk.write(random, start, stop);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static <T> T pick(Random random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(pick(random, WORDS));
+        }
+        return text.toString();
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    @FunctionalInterface
+    private interface Chunk {
+        void write(Random random, int from, int to) throws Exception;
+    }
+}
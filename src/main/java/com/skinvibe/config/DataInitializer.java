@@ -2,9 +2,11 @@ package com.skinvibe.config;
 
 import com.skinvibe.model.*;
 import com.skinvibe.repository.*;
+import com.skinvibe.service.CatalogVersion;
 import com.skinvibe.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -26,6 +28,12 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
     @Override
     public void run(String... args) throws Exception {
         System.out.println("DataInitializer running...");
@@ -42,6 +50,11 @@ public class DataInitializer implements CommandLineRunner {
         if (productRepository.count() == 0) {
             System.out.println("No products found, initializing products...");
             initializeProducts();
+            // Requests served while seeding cached an empty catalog
+            for (String cacheName : new String[]{CacheConfig.ACTIVE_CATEGORIES, CacheConfig.ALL_CATEGORIES, CacheConfig.FEATURED_PRODUCTS}) {
+                cacheManager.getCache(cacheName).clear();
+            }
+            catalogVersion.changed();
         } else {
             System.out.println("Products already exist: " + productRepository.count());
         }
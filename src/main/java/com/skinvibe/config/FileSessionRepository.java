@@ -0,0 +1,332 @@
+package com.skinvibe.config;
+
+import com.skinvibe.model.SessionUser;
+import com.skinvibe.model.User;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.MapSession;
+import org.springframework.session.SessionRepository;
+import org.springframework.web.servlet.FlashMap;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Session store backed by one file per session in a shared directory. Files are replaced
+ * atomically, so nodes reading concurrently never observe a partially written session.
+ *
+ * Layout: format version, creation time, max inactive seconds, then the attributes as
+ * name/tagged-value pairs. Only the value types the application stores are encoded, and nothing
+ * is deserialized through Java serialization. The last access time is the file's modification
+ * time, so a request that changes no attribute only touches the file instead of rewriting it.
+ */
+public class FileSessionRepository implements SessionRepository<MapSession> {
+    
+    private static final int FORMAT_VERSION = 2;
+    private static final String SUFFIX = ".session";
+    
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte LONG = 2;
+    private static final byte INTEGER = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte SESSION_USER = 5;
+    private static final byte FLASH_MAPS = 6;
+    
+    // Session ids arrive from cookies, so only ids Spring Session could have generated map to files
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9-]{1,64}");
+    
+    private final Path directory;
+    
+    private final Duration defaultMaxInactiveInterval;
+    
+    // Record last read or written per session, to tell a changed session from one that was only accessed
+    private final Map<String, byte[]> stored = new ConcurrentHashMap<>();
+    
+    public FileSessionRepository(Path directory, Duration defaultMaxInactiveInterval) {
+        this.directory = directory;
+        this.defaultMaxInactiveInterval = defaultMaxInactiveInterval;
+        try {
+            createPrivateDirectory(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create session directory " + directory, e);
+        }
+    }
+    
+    @Override
+    public MapSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(defaultMaxInactiveInterval);
+        return session;
+    }
+    
+    @Override
+    public void save(MapSession session) {
+        // A changed id (session fixation protection) leaves the old file behind otherwise
+        if (!session.getId().equals(session.getOriginalId())) {
+            deleteById(session.getOriginalId());
+        }
+        
+        Path target = fileFor(session.getId());
+        if (target == null) {
+            return;
+        }
+        FileTime lastAccessedTime = FileTime.from(session.getLastAccessedTime());
+        try {
+            byte[] record = encode(session);
+            if (Arrays.equals(record, stored.get(session.getId()))) {
+                try {
+                    Files.setLastModifiedTime(target, lastAccessedTime);
+                    return;
+                } catch (NoSuchFileException e) {
+                    // Expired or logged out on another node; written again below
+                }
+            }
+            Path temp = Files.createTempFile(directory, session.getId(), ".tmp");
+            Files.write(temp, record);
+            Files.setLastModifiedTime(temp, lastAccessedTime);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            stored.put(session.getId(), record);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save session " + session.getId(), e);
+        }
+    }
+    
+    @Override
+    public MapSession findById(String id) {
+        Path file = fileFor(id);
+        if (file == null) {
+            return null;
+        }
+        MapSession session;
+        try {
+            FileTime lastAccessedTime = Files.getLastModifiedTime(file);
+            byte[] record = Files.readAllBytes(file);
+            session = decode(id, record);
+            session.setLastAccessedTime(lastAccessedTime.toInstant());
+            stored.put(id, record);
+        } catch (NoSuchFileException e) {
+            stored.remove(id);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // Unreadable sessions (e.g. from an incompatible release) are treated as logged out
+            deleteById(id);
+            return null;
+        }
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return session;
+    }
+    
+    @Override
+    public void deleteById(String id) {
+        Path file = fileFor(id);
+        if (file == null) {
+            return;
+        }
+        stored.remove(id);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete session " + id, e);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${skinvibe.session.cleanup-interval:60000}")
+    public void deleteExpiredSessions() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                    in.readInt();
+                    in.readLong();
+                    Duration maxInactiveInterval = Duration.ofSeconds(in.readInt());
+                    Instant lastAccessedTime = Files.getLastModifiedTime(file).toInstant();
+                    if (!maxInactiveInterval.isNegative()
+                            && Instant.now().isAfter(lastAccessedTime.plus(maxInactiveInterval))) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException e) {
+                    // Removed or rewritten by another node in the meantime
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot scan session directory " + directory, e);
+        }
+        stored.keySet().removeIf(id -> !Files.exists(fileFor(id)));
+    }
+    
+    private Path fileFor(String id) {
+        if (id == null || !VALID_ID.matcher(id).matches()) {
+            return null;
+        }
+        return directory.resolve(id + SUFFIX);
+    }
+    
+    // Any local user able to write here could plant a session, so the directory must be ours alone
+    private static void createPrivateDirectory(Path directory) throws IOException {
+        if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory);
+            return;
+        }
+        if (Files.notExists(directory)) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        }
+        // A file created here is owned by whoever this process runs as
+        Path probe = Files.createTempFile(directory, "owner", ".tmp");
+        UserPrincipal currentUser;
+        try {
+            currentUser = Files.getOwner(probe);
+        } finally {
+            Files.delete(probe);
+        }
+        UserPrincipal owner = Files.getOwner(directory);
+        if (!owner.equals(currentUser)) {
+            throw new IllegalStateException("Session directory " + directory + " is owned by " + owner.getName()
+                    + ", not by " + currentUser.getName());
+        }
+        if (Files.getPosixFilePermissions(directory).contains(PosixFilePermission.OTHERS_WRITE)) {
+            throw new IllegalStateException("Session directory " + directory + " is world-writable");
+        }
+    }
+    
+    private static byte[] encode(MapSession session) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(session.getCreationTime().toEpochMilli());
+        out.writeInt((int) session.getMaxInactiveInterval().getSeconds());
+        
+        Set<String> names = new TreeSet<>(session.getAttributeNames());
+        out.writeInt(names.size());
+        for (String name : names) {
+            out.writeUTF(name);
+            writeValue(out, name, session.getAttribute(name));
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static MapSession decode(String id, byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported session format");
+        }
+        MapSession session = new MapSession(id);
+        session.setCreationTime(Instant.ofEpochMilli(in.readLong()));
+        session.setMaxInactiveInterval(Duration.ofSeconds(in.readInt()));
+        
+        int attributeCount = in.readInt();
+        for (int i = 0; i < attributeCount; i++) {
+            session.setAttribute(in.readUTF(), readValue(in));
+        }
+        return session;
+    }
+    
+    private static void writeValue(DataOutputStream out, String name, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String text) {
+            out.writeByte(STRING);
+            out.writeUTF(text);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INTEGER);
+            out.writeInt(number);
+        } else if (value instanceof Boolean flag) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(flag);
+        } else if (value instanceof SessionUser user) {
+            out.writeByte(SESSION_USER);
+            out.writeLong(user.getId());
+            out.writeUTF(user.getUsername());
+            out.writeUTF(user.getRole().name());
+            out.writeUTF(user.getDisplayName());
+        } else if (value instanceof List<?> list && list.stream().allMatch(FlashMap.class::isInstance)) {
+            out.writeByte(FLASH_MAPS);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeFlashMap(out, name, (FlashMap) element);
+            }
+        } else {
+            throw new IllegalArgumentException("Session attribute " + name + " of type "
+                    + value.getClass().getName() + " cannot be stored in a file session");
+        }
+    }
+    
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readUTF();
+            case LONG:
+                return in.readLong();
+            case INTEGER:
+                return in.readInt();
+            case BOOLEAN:
+                return in.readBoolean();
+            case SESSION_USER:
+                return new SessionUser(in.readLong(), in.readUTF(), User.Role.valueOf(in.readUTF()), in.readUTF());
+            case FLASH_MAPS:
+                int count = in.readInt();
+                List<FlashMap> flashMaps = new CopyOnWriteArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    flashMaps.add(readFlashMap(in));
+                }
+                return flashMaps;
+            default:
+                throw new IOException("Unknown session value type " + tag);
+        }
+    }
+    
+    // Flash attributes survive one redirect; the application only flashes messages
+    private static void writeFlashMap(DataOutputStream out, String name, FlashMap flashMap) throws IOException {
+        writeValue(out, name, flashMap.getTargetRequestPath());
+        out.writeLong(flashMap.getExpirationTime());
+        out.writeInt(flashMap.getTargetRequestParams().size());
+        for (Map.Entry<String, List<String>> param : flashMap.getTargetRequestParams().entrySet()) {
+            out.writeUTF(param.getKey());
+            out.writeInt(param.getValue().size());
+            for (String paramValue : param.getValue()) {
+                writeValue(out, name, paramValue);
+            }
+        }
+        out.writeInt(flashMap.size());
+        for (Map.Entry<String, Object> attribute : flashMap.entrySet()) {
+            out.writeUTF(attribute.getKey());
+            writeValue(out, name, attribute.getValue());
+        }
+    }
+    
+    private static FlashMap readFlashMap(DataInputStream in) throws IOException {
+        FlashMap flashMap = new FlashMap();
+        flashMap.setTargetRequestPath((String) readValue(in));
+        flashMap.setExpirationTime(in.readLong());
+        int paramCount = in.readInt();
+        for (int i = 0; i < paramCount; i++) {
+            String paramName = in.readUTF();
+            int valueCount = in.readInt();
+            for (int j = 0; j < valueCount; j++) {
+                flashMap.addTargetRequestParam(paramName, (String) readValue(in));
+            }
+        }
+        int attributeCount = in.readInt();
+        for (int i = 0; i < attributeCount; i++) {
+            flashMap.put(in.readUTF(), readValue(in));
+        }
+        return flashMap;
+    }
+}
@@ -0,0 +1,44 @@
+package com.skinvibe.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+/**
+ * Second-level cache for Hibernate. Regions live in a Caffeine JCache manager sized from
+ * application.conf, and each region's hit, miss and eviction counts are published as cache.*
+ * metrics alongside the Spring caches.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        return Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+    
+    // Regions are created while the entity manager factory starts, so they are bound after it
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager, EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            for (String name : hibernateCacheManager.getCacheNames()) {
+                Cache<?, ?> cache = hibernateCacheManager.getCache(name).unwrap(Cache.class);
+                CaffeineCacheMetrics.monitor(registry, cache, name);
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.skinvibe.config;
+
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class OutboxConfig {
+    
+    // One relay thread and room for one queued pass; wake-ups beyond that are dropped, as the queued pass covers them
+    @Bean
+    public ThreadPoolTaskExecutor outboxRelayExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        ThreadPoolTaskExecutor executor = builder.corePoolSize(1)
+                .maxPoolSize(1)
+                .queueCapacity(1)
+                .threadNamePrefix("outbox-relay-")
+                .awaitTermination(true)
+                .awaitTerminationPeriod(Duration.ofSeconds(10))
+                .build();
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        return executor;
+    }
+}
@@ -0,0 +1,120 @@
+package com.skinvibe.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves the second connection of a thread that already holds one from a small reserve pool.
+ * Hibernate's table id generators fetch their next block on a separate connection from inside a
+ * synchronized optimizer, and REQUIRES_NEW transactions open one beside the outer transaction's.
+ * Taken from the main pool, such a connection can wait on threads that are themselves queued
+ * behind it while holding every pooled connection, and all of them stall until the timeout.
+ *
+ * The reserve is carved out of spring.datasource.hikari.maximum-pool-size rather than added to
+ * it, so the configured size stays the number of connections the application ever opens.
+ */
+@Component
+public class ReserveConnectionPool implements BeanPostProcessor, EnvironmentAware, Ordered {
+    
+    private int reserveSize;
+    
+    @Override
+    public void setEnvironment(Environment environment) {
+        reserveSize = environment.getProperty("skinvibe.datasource.reserve-pool-size", Integer.class, 4);
+    }
+    
+    // Runs first, so it sees the Hikari pool itself rather than a DataSource wrapped around it
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof HikariDataSource primary) || reserveSize <= 0) {
+            return bean;
+        }
+        int total = primary.getMaximumPoolSize();
+        if (reserveSize >= total) {
+            throw new IllegalStateException("skinvibe.datasource.reserve-pool-size (" + reserveSize
+                    + ") must be smaller than spring.datasource.hikari.maximum-pool-size (" + total + ")");
+        }
+        HikariConfig config = new HikariConfig();
+        primary.copyStateTo(config);
+        config.setPoolName((primary.getPoolName() != null ? primary.getPoolName() : beanName) + "-reserve");
+        config.setMaximumPoolSize(reserveSize);
+        config.setMinimumIdle(0);
+        // The pool has not started yet, so its size can still change
+        primary.setMaximumPoolSize(total - reserveSize);
+        primary.setMinimumIdle(Math.min(primary.getMinimumIdle(), total - reserveSize));
+        return new ReserveRoutingDataSource(primary, new HikariDataSource(config));
+    }
+    
+    private static class ReserveRoutingDataSource extends DelegatingDataSource implements AutoCloseable {
+        
+        private final HikariDataSource primary;
+        
+        private final HikariDataSource reserve;
+        
+        private final ThreadLocal<AtomicInteger> held = ThreadLocal.withInitial(AtomicInteger::new);
+        
+        ReserveRoutingDataSource(HikariDataSource primary, HikariDataSource reserve) {
+            super(primary);
+            this.primary = primary;
+            this.reserve = reserve;
+        }
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            AtomicInteger count = held.get();
+            Connection connection = count.get() == 0 ? primary.getConnection() : reserve.getConnection();
+            count.incrementAndGet();
+            return tracked(connection, count);
+        }
+        
+        // The count is released on close even when another thread closes the connection
+        private static Connection tracked(Connection connection, AtomicInteger count) {
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "close":
+                                if (closed.compareAndSet(false, true)) {
+                                    count.decrementAndGet();
+                                }
+                                break;
+                            default:
+                                break;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+        
+        @Override
+        public void close() {
+            reserve.close();
+            primary.close();
+        }
+    }
+}
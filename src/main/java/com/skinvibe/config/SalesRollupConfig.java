@@ -0,0 +1,21 @@
+package com.skinvibe.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class SalesRollupConfig {
+    
+    // One thread runs the rebuild and waits for the day chunks, which the others recompute
+    @Bean
+    public ThreadPoolTaskExecutor salesRollupExecutor(ThreadPoolTaskExecutorBuilder builder,
+                                                      @Value("${skinvibe.rollup.rebuild-threads:4}") int rebuildThreads) {
+        return builder.corePoolSize(rebuildThreads + 1)
+                .maxPoolSize(rebuildThreads + 1)
+                .threadNamePrefix("sales-rollup-")
+                .build();
+    }
+}
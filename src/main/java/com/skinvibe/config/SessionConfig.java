@@ -0,0 +1,38 @@
+package com.skinvibe.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.MapSessionRepository;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Selects where HTTP sessions live. "memory" keeps them in this JVM; "file" stores them in a
+ * directory that several local nodes can share, so a login on one node is honored by the others.
+ */
+@Configuration
+@EnableSpringHttpSession
+public class SessionConfig {
+    
+    @Value("${server.servlet.session.timeout:30m}")
+    private Duration sessionTimeout;
+    
+    @Bean
+    @ConditionalOnProperty(name = "skinvibe.session.store", havingValue = "memory", matchIfMissing = true)
+    public MapSessionRepository mapSessionRepository() {
+        MapSessionRepository repository = new MapSessionRepository(new ConcurrentHashMap<>());
+        repository.setDefaultMaxInactiveInterval(sessionTimeout);
+        return repository;
+    }
+    
+    @Bean
+    @ConditionalOnProperty(name = "skinvibe.session.store", havingValue = "file")
+    public FileSessionRepository fileSessionRepository(@Value("${skinvibe.session.directory}") Path directory) {
+        return new FileSessionRepository(directory, sessionTimeout);
+    }
+}
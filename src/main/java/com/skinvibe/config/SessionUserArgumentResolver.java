@@ -0,0 +1,35 @@
+package com.skinvibe.config;
+
+import com.skinvibe.model.SessionUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Supplies the logged-in {@link SessionUser} to controller methods, or null for anonymous requests.
+ */
+public class SessionUserArgumentResolver implements HandlerMethodArgumentResolver {
+    
+    public static final String SESSION_ATTRIBUTE = "user";
+    
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return SessionUser.class.equals(parameter.getParameterType());
+    }
+    
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+        HttpSession session = request != null ? request.getSession(false) : null;
+        if (session == null) {
+            return null;
+        }
+        Object user = session.getAttribute(SESSION_ATTRIBUTE);
+        return user instanceof SessionUser ? user : null;
+    }
+}
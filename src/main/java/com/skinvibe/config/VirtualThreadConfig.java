@@ -0,0 +1,61 @@
+package com.skinvibe.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Diagnostics for the virtual-thread mode. A virtual thread that blocks inside synchronized or native
+ * code keeps its carrier, and with only one carrier per core a few of them stall every request; the
+ * JDK reports each such stall as a JFR event, which is streamed here into the log and a timer.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+    
+    @Bean(destroyMethod = "close")
+    public RecordingStream pinnedThreadRecording(@Value("${skinvibe.virtual-threads.pinned-threshold:20ms}") Duration threshold,
+                                                 MeterRegistry registry) {
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent blocked while pinned to their carrier")
+                .register(registry);
+        
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, event -> {
+            pinned.record(event.getDuration());
+            log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), stack(event));
+        });
+        recording.startAsync();
+        return recording;
+    }
+    
+    private static String stack(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "";
+        }
+        StringBuilder stack = new StringBuilder();
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        for (RecordedFrame frame : frames.subList(0, Math.min(frames.size(), LOGGED_FRAMES))) {
+            stack.append("\n    at ").append(frame.getMethod().getType().getName()).append('.')
+                    .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+        }
+        return stack.toString();
+    }
+}
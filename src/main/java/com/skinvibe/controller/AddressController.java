@@ -1,10 +1,10 @@
 package com.skinvibe.controller;
 
 import com.skinvibe.model.Address;
-import com.skinvibe.model.User;
+import com.skinvibe.model.SessionUser;
 import com.skinvibe.service.AddressService;
+import com.skinvibe.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -21,13 +21,15 @@ public class AddressController {
     @Autowired
     private AddressService addressService;
     
+    @Autowired
+    private UserService userService;
+    
     @GetMapping
-    public String addresses(HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
+    public String addresses(SessionUser user, Model model) {
         if (user == null) {
             return "redirect:/auth/login";
         }
-        List<Address> addresses = addressService.getAddressesByUser(user);
+        List<Address> addresses = addressService.getAddressesByUser(user.getId());
         
         model.addAttribute("addresses", addresses);
         model.addAttribute("address", new Address());
@@ -36,8 +38,7 @@ public class AddressController {
     }
     
     @GetMapping("/add")
-    public String addAddress(HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
+    public String addAddress(SessionUser user, Model model) {
         if (user == null) {
             return "redirect:/auth/login";
         }
@@ -48,18 +49,18 @@ public class AddressController {
     @PostMapping("/add")
     public String saveAddress(@Valid @ModelAttribute Address address,
                              BindingResult result,
-                             HttpSession session,
+                             SessionUser user,
                              RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
             return "addresses/form";
         }
         
-        try {
-            User user = (User) session.getAttribute("user");
         if (user == null) {
             return "redirect:/auth/login";
         }
-            address.setUser(user);
+        
+        try {
+            address.setUser(userService.getReference(user.getId()));
             addressService.saveAddress(address);
             redirectAttributes.addFlashAttribute("success", "Address saved successfully!");
             return "redirect:/addresses";
@@ -70,8 +71,7 @@ public class AddressController {
     }
     
     @GetMapping("/edit/{id}")
-    public String editAddress(@PathVariable Long id, HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
+    public String editAddress(@PathVariable Long id, SessionUser user, Model model) {
         if (user == null) {
             return "redirect:/auth/login";
         }
@@ -91,17 +91,17 @@ public class AddressController {
     public String updateAddress(@PathVariable Long id,
                                @Valid @ModelAttribute Address address,
                                BindingResult result,
-                               HttpSession session,
+                               SessionUser user,
                                RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
             return "addresses/form";
         }
         
-        try {
-            User user = (User) session.getAttribute("user");
         if (user == null) {
             return "redirect:/auth/login";
         }
+        
+        try {
             Address existingAddress = addressService.findById(id)
                     .orElseThrow(() -> new RuntimeException("Address not found"));
             
@@ -111,7 +111,7 @@ public class AddressController {
             }
             
             address.setId(id);
-            address.setUser(user);
+            address.setUser(userService.getReference(user.getId()));
             addressService.updateAddress(address);
             redirectAttributes.addFlashAttribute("success", "Address updated successfully!");
             return "redirect:/addresses";
@@ -123,13 +123,13 @@ public class AddressController {
     
     @PostMapping("/delete/{id}")
     public String deleteAddress(@PathVariable Long id,
-                               HttpSession session,
+                               SessionUser user,
                                RedirectAttributes redirectAttributes) {
-        try {
-            User user = (User) session.getAttribute("user");
         if (user == null) {
             return "redirect:/auth/login";
         }
+        
+        try {
             Address address = addressService.findById(id)
                     .orElseThrow(() -> new RuntimeException("Address not found"));
             
@@ -1,18 +1,25 @@
 package com.skinvibe.controller;
 
 import com.skinvibe.model.*;
+import com.skinvibe.repository.SalesRollupRepository;
 import com.skinvibe.service.*;
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 @Controller
@@ -29,37 +36,79 @@ public class AdminController {
     private OrderService orderService;
     
     @Autowired
-    private UserService userService;
+    private DashboardCounters dashboardCounters;
+    
+    @Autowired
+    private SalesRollupService salesRollupService;
+    
+    @Autowired
+    private OrderExportService orderExportService;
+    
+    @Autowired
+    private BulkStatusJobService bulkStatusJobService;
+    
+    @Value("${skinvibe.rollup.dashboard-days:30}")
+    private int analyticsDays;
     
     // Admin Dashboard
     @GetMapping
-    public String adminDashboard(HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+    public String adminDashboard(SessionUser user, Model model) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
-        // Get statistics for dashboard
-        long totalProducts = productService.getTotalProducts();
-        long totalOrders = orderService.getTotalOrders();
-        long totalUsers = userService.getTotalUsers();
-        long pendingOrders = orderService.getPendingOrdersCount();
+        // Get statistics for dashboard from the in-memory counters
+        long totalProducts = dashboardCounters.getTotalProducts();
+        long totalOrders = dashboardCounters.getTotalOrders();
+        long totalUsers = dashboardCounters.getTotalUsers();
+        long pendingOrders = dashboardCounters.getOrderCount(Order.OrderStatus.PENDING);
         
         model.addAttribute("totalProducts", totalProducts);
         model.addAttribute("totalOrders", totalOrders);
         model.addAttribute("totalUsers", totalUsers);
         model.addAttribute("pendingOrders", pendingOrders);
         
+        // Sales analytics are read from the daily rollup tables, never from orders
+        List<SalesRollupRepository.DailySales> dailySales = salesRollupService.getDailySales(analyticsDays);
+        BigDecimal periodRevenue = BigDecimal.ZERO;
+        BigDecimal maxDailyRevenue = BigDecimal.ZERO;
+        for (SalesRollupRepository.DailySales day : dailySales) {
+            periodRevenue = periodRevenue.add(day.revenue());
+            maxDailyRevenue = maxDailyRevenue.max(day.revenue());
+        }
+        model.addAttribute("analyticsDays", analyticsDays);
+        model.addAttribute("dailySales", dailySales);
+        model.addAttribute("periodRevenue", periodRevenue);
+        model.addAttribute("maxDailyRevenue", maxDailyRevenue);
+        model.addAttribute("ordersByStatus", salesRollupService.getOrderCountsByStatus(analyticsDays));
+        model.addAttribute("topProducts", salesRollupService.getTopProducts(analyticsDays, 10));
+        model.addAttribute("categorySales", salesRollupService.getCategorySales(analyticsDays));
+        model.addAttribute("rollupRebuilding", salesRollupService.isRebuilding());
+        model.addAttribute("lastRollupRebuild", salesRollupService.getLastRebuild());
+        
         return "admin/dashboard";
     }
     
+    @PostMapping("/analytics/rebuild")
+    public String rebuildAnalytics(SessionUser user, RedirectAttributes redirectAttributes) {
+        if (user == null || !user.isAdmin()) {
+            return "redirect:/auth/login";
+        }
+        
+        if (salesRollupService.startRebuild()) {
+            redirectAttributes.addFlashAttribute("success", "Sales analytics rebuild started.");
+        } else {
+            redirectAttributes.addFlashAttribute("error", "A sales analytics rebuild is already running.");
+        }
+        return "redirect:/admin";
+    }
+    
     // Product Management
     @GetMapping("/products")
-    public String adminProducts(HttpSession session, Model model, 
+    public String adminProducts(SessionUser user, Model model, 
                                @RequestParam(defaultValue = "0") int page,
                                @RequestParam(defaultValue = "10") int size) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
@@ -71,9 +120,8 @@ public class AdminController {
     }
     
     @GetMapping("/products/add")
-    public String addProductForm(HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+    public String addProductForm(SessionUser user, Model model) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
@@ -85,9 +133,8 @@ public class AdminController {
     @PostMapping("/products/add")
     public String addProduct(@Valid @ModelAttribute Product product, 
                            BindingResult result,
-                           HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+                           SessionUser user, Model model) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
@@ -106,9 +153,8 @@ public class AdminController {
     }
     
     @GetMapping("/products/edit/{id}")
-    public String editProductForm(@PathVariable Long id, HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+    public String editProductForm(@PathVariable Long id, SessionUser user, Model model) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
@@ -125,9 +171,8 @@ public class AdminController {
     @PostMapping("/products/edit/{id}")
     public String editProduct(@PathVariable Long id, @Valid @ModelAttribute Product product, 
                             BindingResult result,
-                            HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+                            SessionUser user, Model model) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
@@ -147,14 +192,13 @@ public class AdminController {
         }
         
         product.setId(id);
-        productService.saveProduct(product);
+        productService.updateProduct(product);
         return "redirect:/admin/products";
     }
     
     @PostMapping("/products/delete/{id}")
-    public String deleteProduct(@PathVariable Long id, HttpSession session) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+    public String deleteProduct(@PathVariable Long id, SessionUser user) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
@@ -164,25 +208,35 @@ public class AdminController {
     
     // Order Management
     @GetMapping("/orders")
-    public String adminOrders(HttpSession session, Model model,
-                             @RequestParam(defaultValue = "0") int page,
+    public String adminOrders(SessionUser user, Model model,
+                             @RequestParam(required = false) Integer page,
+                             @RequestParam(required = false) String cursor,
                              @RequestParam(defaultValue = "10") int size) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orders = orderService.getAllOrders(pageable);
+        size = CursorPage.boundedSize(size);
+        // Explicit page numbers still use offset paging; the default listing seeks on (created_at, id)
+        if (page != null) {
+            Pageable pageable = PageRequest.of(Math.max(page, 0), size);
+            model.addAttribute("orders", orderService.getAllOrders(pageable));
+            model.addAttribute("seek", false);
+        } else {
+            try {
+                model.addAttribute("orders", orderService.getAllOrders(cursor, size));
+            } catch (IllegalArgumentException e) {
+                return "redirect:/admin/orders";
+            }
+            model.addAttribute("seek", true);
+        }
         
-        model.addAttribute("orders", orders);
         return "admin/orders/list";
     }
     
     @GetMapping("/orders/{id}")
-    public String viewOrder(@PathVariable Long id, HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+    public String viewOrder(@PathVariable Long id, SessionUser user, Model model) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
@@ -195,19 +249,108 @@ public class AdminController {
         return "admin/orders/detail";
     }
     
+    @GetMapping("/orders/export")
+    public void exportOrders(SessionUser user,
+                             @RequestParam(defaultValue = "csv") String format,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                             @RequestParam(required = false) Order.OrderStatus status,
+                             HttpServletResponse response) throws IOException {
+        if (user == null || !user.isAdmin()) {
+            response.sendRedirect("/auth/login");
+            return;
+        }
+        
+        // Rows are written as they are read, so the response is streamed rather than buffered
+        boolean json = "json".equalsIgnoreCase(format);
+        String filename = "orders-" + LocalDate.now() + (json ? ".json" : ".csv");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+        response.setCharacterEncoding("UTF-8");
+        if (json) {
+            response.setContentType("application/json");
+            orderExportService.writeJson(from, to, status, response.getOutputStream());
+        } else {
+            response.setContentType("text/csv");
+            orderExportService.writeCsv(from, to, status, response.getWriter());
+        }
+    }
+    
+    @GetMapping("/orders/bulk")
+    public String bulkStatusForm(SessionUser user) {
+        if (user == null || !user.isAdmin()) {
+            return "redirect:/auth/login";
+        }
+        
+        return "admin/orders/bulk";
+    }
+    
+    @PostMapping("/orders/bulk")
+    public String startBulkStatusChange(SessionUser user,
+                                        @RequestParam Order.OrderStatus targetStatus,
+                                        @RequestParam(required = false) String orderIds,
+                                        @RequestParam(required = false) Order.OrderStatus fromStatus,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                        RedirectAttributes redirectAttributes) {
+        if (user == null || !user.isAdmin()) {
+            return "redirect:/auth/login";
+        }
+        
+        try {
+            BulkStatusJob job;
+            if (orderIds != null && !orderIds.isBlank()) {
+                List<Long> ids = new ArrayList<>();
+                for (String id : orderIds.trim().split("[\\s,]+")) {
+                    ids.add(Long.parseLong(id));
+                }
+                job = bulkStatusJobService.startForOrders(ids, targetStatus);
+            } else if (fromStatus != null) {
+                job = bulkStatusJobService.startForStatus(fromStatus, from, to, targetStatus);
+            } else {
+                throw new RuntimeException("Enter order ids or choose the status to move orders from");
+            }
+            return "redirect:/admin/orders/bulk/" + job.getId();
+        } catch (NumberFormatException e) {
+            redirectAttributes.addFlashAttribute("error", "Order ids must be numbers separated by commas or spaces");
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
+        return "redirect:/admin/orders/bulk";
+    }
+    
+    @GetMapping("/orders/bulk/{jobId}")
+    public String bulkStatusProgress(@PathVariable String jobId, SessionUser user, Model model) {
+        if (user == null || !user.isAdmin()) {
+            return "redirect:/auth/login";
+        }
+        
+        BulkStatusJob job = bulkStatusJobService.getJob(jobId);
+        if (job == null) {
+            return "redirect:/admin/orders/bulk";
+        }
+        
+        model.addAttribute("job", job);
+        return "admin/orders/bulk-progress";
+    }
+    
     @PostMapping("/orders/{id}/status")
     public String updateOrderStatus(@PathVariable Long id, 
                                   @RequestParam Order.OrderStatus status,
-                                  HttpSession session) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+                                  SessionUser user,
+                                  RedirectAttributes redirectAttributes) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
-        Order order = orderService.getOrderById(id);
-        if (order != null) {
-            order.setOrderStatus(status);
-            orderService.saveOrder(order);
+        // Through the service so shipping timestamps and dashboard counters follow the change
+        try {
+            orderService.updateOrderStatus(id, status);
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            // The detail page of a missing order redirects once more and would drop the message
+            if (orderService.getOrderById(id) == null) {
+                return "redirect:/admin/orders";
+            }
         }
         
         return "redirect:/admin/orders/" + id;
@@ -216,9 +359,8 @@ public class AdminController {
     @PostMapping("/orders/{id}/payment-status")
     public String updatePaymentStatus(@PathVariable Long id, 
                                     @RequestParam Order.PaymentStatus status,
-                                    HttpSession session) {
-        User user = (User) session.getAttribute("user");
-        if (user == null || !user.getRole().equals(User.Role.ADMIN)) {
+                                    SessionUser user) {
+        if (user == null || !user.isAdmin()) {
             return "redirect:/auth/login";
         }
         
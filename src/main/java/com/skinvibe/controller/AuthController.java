@@ -1,5 +1,6 @@
 package com.skinvibe.controller;
 
+import com.skinvibe.model.SessionUser;
 import com.skinvibe.model.User;
 import com.skinvibe.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,7 +35,8 @@ public class AuthController {
         if (userService.validateUser(username, password)) {
             User user = userService.findByUsername(username).orElse(null);
             if (user != null) {
-                session.setAttribute("user", user);
+                // Only a compact principal goes into the session, never the entity
+                session.setAttribute("user", SessionUser.from(user));
                 return "redirect:/home";
             }
         }
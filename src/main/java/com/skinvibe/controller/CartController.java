@@ -1,18 +1,14 @@
 package com.skinvibe.controller;
 
-import com.skinvibe.model.CartItem;
-import com.skinvibe.model.User;
+import com.skinvibe.model.SessionUser;
+import com.skinvibe.service.Cart;
 import com.skinvibe.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.math.BigDecimal;
-import java.util.List;
-
 @Controller
 @RequestMapping("/cart")
 public class CartController {
@@ -21,18 +17,16 @@ public class CartController {
     private CartService cartService;
     
     @GetMapping
-    public String viewCart(Model model, HttpSession session) {
-        User user = (User) session.getAttribute("user");
+    public String viewCart(Model model, SessionUser user) {
         if (user == null) {
             return "redirect:/auth/login";
         }
         
-        List<CartItem> cartItems = cartService.getCartItems(user);
-        BigDecimal cartTotal = cartService.getCartTotal(user);
+        Cart cart = cartService.getCart(user.getId());
         
-        model.addAttribute("cartItems", cartItems);
-        model.addAttribute("cartTotal", cartTotal);
-        model.addAttribute("cartItemCount", cartItems.size());
+        model.addAttribute("cartItems", cart.getItems());
+        model.addAttribute("cartTotal", cart.getTotal());
+        model.addAttribute("cartItemCount", cart.getLineCount());
         
         return "cart/view";
     }
@@ -40,15 +34,14 @@ public class CartController {
     @PostMapping("/add")
     public String addToCart(@RequestParam Long productId,
                            @RequestParam(defaultValue = "1") Integer quantity,
-                           HttpSession session,
+                           SessionUser user,
                            RedirectAttributes redirectAttributes) {
-        User user = (User) session.getAttribute("user");
         if (user == null) {
             return "redirect:/auth/login";
         }
         
         try {
-            cartService.addToCart(user, productId, quantity);
+            cartService.addToCart(user.getId(), productId, quantity);
             redirectAttributes.addFlashAttribute("success", "Product added to cart successfully!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
@@ -60,14 +53,14 @@ public class CartController {
     @PostMapping("/update")
     public String updateCartItem(@RequestParam Long productId,
                                 @RequestParam Integer quantity,
-                                HttpSession session,
+                                SessionUser user,
                                 RedirectAttributes redirectAttributes) {
-        try {
-            User user = (User) session.getAttribute("user");
         if (user == null) {
             return "redirect:/auth/login";
         }
-            cartService.updateCartItemQuantity(user, productId, quantity);
+        
+        try {
+            cartService.updateCartItemQuantity(user.getId(), productId, quantity);
             redirectAttributes.addFlashAttribute("success", "Cart updated successfully!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
@@ -78,14 +71,14 @@ public class CartController {
     
     @PostMapping("/remove")
     public String removeFromCart(@RequestParam Long productId,
-                                HttpSession session,
+                                SessionUser user,
                                 RedirectAttributes redirectAttributes) {
-        try {
-            User user = (User) session.getAttribute("user");
         if (user == null) {
             return "redirect:/auth/login";
         }
-            cartService.removeFromCart(user, productId);
+        
+        try {
+            cartService.removeFromCart(user.getId(), productId);
             redirectAttributes.addFlashAttribute("success", "Product removed from cart!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
@@ -95,14 +88,14 @@ public class CartController {
     }
     
     @PostMapping("/clear")
-    public String clearCart(HttpSession session,
+    public String clearCart(SessionUser user,
                            RedirectAttributes redirectAttributes) {
-        try {
-            User user = (User) session.getAttribute("user");
         if (user == null) {
             return "redirect:/auth/login";
         }
-            cartService.clearCart(user);
+        
+        try {
+            cartService.clearCart(user.getId());
             redirectAttributes.addFlashAttribute("success", "Cart cleared successfully!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
@@ -0,0 +1,25 @@
+package com.skinvibe.controller;
+
+import com.skinvibe.model.SessionUser;
+import com.skinvibe.service.CartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ModelAttribute;
+
+/**
+ * Exposes the signed-in user's cart line count to every page for the navigation badge.
+ */
+@ControllerAdvice
+public class CartCountAdvice {
+    
+    @Autowired
+    private CartService cartService;
+    
+    @ModelAttribute("cartItemCount")
+    public Integer cartItemCount(SessionUser user) {
+        if (user == null) {
+            return null;
+        }
+        return cartService.getCartItemCount(user.getId());
+    }
+}
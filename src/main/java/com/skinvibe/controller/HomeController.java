@@ -1,7 +1,9 @@
 package com.skinvibe.controller;
 
-import com.skinvibe.model.Product;
+import com.skinvibe.model.ProductCard;
+import com.skinvibe.model.SessionUser;
 import com.skinvibe.service.CategoryService;
+import com.skinvibe.service.FragmentCache;
 import com.skinvibe.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -12,7 +14,7 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.List;
+import java.util.Map;
 
 @Controller
 public class HomeController {
@@ -23,22 +25,26 @@ public class HomeController {
     @Autowired
     private CategoryService categoryService;
     
+    @Autowired
+    private FragmentCache fragmentCache;
+    
     @GetMapping({"/", "/home"})
     public String home(Model model, 
                       @RequestParam(defaultValue = "0") int page,
                       @RequestParam(defaultValue = "8") int size) {
         
-        // Get featured products
-        List<Product> featuredProducts = productService.getFeaturedProducts();
-        model.addAttribute("featuredProducts", featuredProducts);
+        // Featured products and categories are only loaded when their rendered fragments are not cached
+        model.addAttribute("featuredHtml", fragmentCache.render(FragmentCache.CATALOG, "featured", null,
+                () -> Map.of("featuredProducts", productService.getFeaturedProducts())));
+        model.addAttribute("categoryNavHtml", fragmentCache.render(FragmentCache.CATALOG, "categoryNav", null,
+                () -> Map.of("categories", categoryService.getAllActiveCategories())));
         
         // Get all active products with pagination
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.getAllActiveProducts(pageable);
+        Page<ProductCard> products = productService.getAllActiveProducts(pageable);
         model.addAttribute("products", products);
-        
-        // Get all active categories
-        model.addAttribute("categories", categoryService.getAllActiveCategories());
+        model.addAttribute("productTiles", fragmentCache.renderEach(FragmentCache.CATALOG, "productTile", "product",
+                products.getContent(), Map.of()));
         
         return "home";
     }
@@ -47,12 +53,15 @@ public class HomeController {
     public String search(@RequestParam String q, 
                         @RequestParam(defaultValue = "0") int page,
                         @RequestParam(defaultValue = "8") int size,
+                        SessionUser user,
                         Model model) {
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.searchProducts(q, pageable);
+        Page<ProductCard> products = productService.searchProducts(q, pageable);
         
         model.addAttribute("products", products);
+        model.addAttribute("productCards", fragmentCache.renderEach(FragmentCache.CATALOG, "productCard", "product",
+                products.getContent(), Map.of("signedIn", user != null)));
         model.addAttribute("searchQuery", q);
         model.addAttribute("categories", categoryService.getAllActiveCategories());
         
@@ -3,16 +3,15 @@ package com.skinvibe.controller;
 import com.skinvibe.model.*;
 import com.skinvibe.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
+import java.util.UUID;
 
 @Controller
 @RequestMapping("/orders")
@@ -27,25 +26,42 @@ public class OrderController {
     @Autowired
     private AddressService addressService;
     
+    @Autowired
+    private StockReservationService stockReservationService;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     @GetMapping
-    public String orders(@RequestParam(defaultValue = "0") int page,
+    public String orders(@RequestParam(required = false) Integer page,
+                        @RequestParam(required = false) String cursor,
                         @RequestParam(defaultValue = "10") int size,
-                        HttpSession session,
+                        SessionUser user,
                         Model model) {
-        User user = (User) session.getAttribute("user");
         if (user == null) {
             return "redirect:/auth/login";
         }
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Order> orders = orderService.getOrdersByUser(user, pageable);
         
-        model.addAttribute("orders", orders);
+        size = CursorPage.boundedSize(size);
+        // Explicit page numbers still use offset paging; the default listing seeks on (created_at, id)
+        if (page != null) {
+            Pageable pageable = PageRequest.of(Math.max(page, 0), size);
+            model.addAttribute("orders", orderService.getOrdersByUser(user.getId(), pageable));
+            model.addAttribute("seek", false);
+        } else {
+            try {
+                model.addAttribute("orders", orderService.getOrdersByUser(user.getId(), cursor, size));
+            } catch (IllegalArgumentException e) {
+                return "redirect:/orders";
+            }
+            model.addAttribute("seek", true);
+        }
+        
         return "orders/list";
     }
     
     @GetMapping("/{id}")
-    public String orderDetail(@PathVariable Long id, HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
+    public String orderDetail(@PathVariable Long id, SessionUser user, Model model) {
         if (user == null) {
             return "redirect:/auth/login";
         }
@@ -62,23 +78,31 @@ public class OrderController {
     }
     
     @GetMapping("/checkout")
-    public String checkout(HttpSession session, Model model) {
-        User user = (User) session.getAttribute("user");
+    public String checkout(SessionUser user, Model model, RedirectAttributes redirectAttributes) {
         if (user == null) {
             return "redirect:/auth/login";
         }
-        List<CartItem> cartItems = cartService.getCartItems(user);
+        Cart cart = cartService.getCart(user.getId());
+        
+        if (cart.isEmpty()) {
+            return "redirect:/cart";
+        }
         
-        if (cartItems.isEmpty()) {
+        // Hold the stock while the user fills in the form so placing the order does not fail late
+        try {
+            model.addAttribute("reservedUntil", stockReservationService.reserve(user.getId(), cart));
+        } catch (RuntimeException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
             return "redirect:/cart";
         }
         
-        List<Address> addresses = addressService.getAddressesByUser(user);
+        List<Address> addresses = addressService.getAddressesByUser(user.getId());
         
-        model.addAttribute("cartItems", cartItems);
-        model.addAttribute("cartTotal", cartService.getCartTotal(user));
+        model.addAttribute("cartItems", cart.getItems());
+        model.addAttribute("cartTotal", cart.getTotal());
         model.addAttribute("addresses", addresses);
         model.addAttribute("order", new Order());
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
         
         return "orders/checkout";
     }
@@ -87,13 +111,14 @@ public class OrderController {
     public String placeOrder(@ModelAttribute Order order,
                             @RequestParam Long shippingAddressId,
                             @RequestParam(required = false) Long billingAddressId,
-                            HttpSession session,
+                            @RequestParam(required = false) String idempotencyKey,
+                            SessionUser user,
                             RedirectAttributes redirectAttributes) {
-        try {
-            User user = (User) session.getAttribute("user");
         if (user == null) {
             return "redirect:/auth/login";
         }
+        
+        try {
             
             Address shippingAddress = addressService.findById(shippingAddressId)
                     .orElseThrow(() -> new RuntimeException("Shipping address not found"));
@@ -102,8 +127,11 @@ public class OrderController {
                     addressService.findById(billingAddressId).orElse(shippingAddress) : 
                     shippingAddress;
             
-            Order createdOrder = orderService.createOrder(user, shippingAddress, billingAddress, 
-                    order.getPaymentMethod(), order.getNotes());
+            // Double submits and retries of the same form get the order the first submission placed
+            String key = IdempotencyService.isValidKey(idempotencyKey) ? idempotencyKey : null;
+            Order createdOrder = idempotencyService.placeOnce(user.getId(), key, () ->
+                    orderService.createOrder(user.getId(), shippingAddress, billingAddress,
+                            order.getPaymentMethod(), order.getNotes(), key));
             
             redirectAttributes.addFlashAttribute("success", "Order placed successfully! Order #: " + createdOrder.getOrderNumber());
             return "redirect:/orders/" + createdOrder.getId();
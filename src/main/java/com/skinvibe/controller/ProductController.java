@@ -1,21 +1,33 @@
 package com.skinvibe.controller;
 
+import com.skinvibe.model.CatalogStamp;
 import com.skinvibe.model.Product;
+import com.skinvibe.model.ProductCard;
+import com.skinvibe.model.SessionUser;
+import com.skinvibe.service.CatalogVersion;
 import com.skinvibe.service.CategoryService;
+import com.skinvibe.service.FragmentCache;
 import com.skinvibe.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/products")
@@ -27,16 +39,32 @@ public class ProductController {
     @Autowired
     private CategoryService categoryService;
     
+    @Autowired
+    private FragmentCache fragmentCache;
+    
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Value("${skinvibe.catalog.http-max-age:60s}")
+    private Duration maxAge;
+    
     @GetMapping
     public String products(@RequestParam(defaultValue = "0") int page,
                           @RequestParam(defaultValue = "12") int size,
                           @RequestParam(required = false) Long categoryId,
                           @RequestParam(required = false) BigDecimal minPrice,
                           @RequestParam(required = false) BigDecimal maxPrice,
+                          SessionUser user,
+                          WebRequest request,
+                          HttpServletResponse response,
                           Model model) {
         
+        if (notModified(user, request, response)) {
+            return null;
+        }
+        
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products;
+        Page<ProductCard> products;
         
         if (categoryId != null) {
             products = productService.getProductsByCategory(categoryId, pageable);
@@ -47,6 +75,7 @@ public class ProductController {
         }
         
         model.addAttribute("products", products);
+        model.addAttribute("productCards", productCards(products, user));
         model.addAttribute("categories", categoryService.getAllActiveCategories());
         model.addAttribute("selectedCategoryId", categoryId);
         model.addAttribute("minPrice", minPrice);
@@ -56,9 +85,14 @@ public class ProductController {
     }
     
     @GetMapping("/{id}")
-    public String productDetail(@PathVariable Long id, Model model) {
+    public String productDetail(@PathVariable Long id, SessionUser user, WebRequest request,
+                                HttpServletResponse response, Model model) {
+        // Looked up first, usually from the second-level cache, so a missing product fails before any cache header is set
         Product product = productService.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (notModified(user, request, response)) {
+            return null;
+        }
         
         model.addAttribute("product", product);
         model.addAttribute("categories", categoryService.getAllActiveCategories());
@@ -70,15 +104,41 @@ public class ProductController {
     public String productsByCategory(@PathVariable Long categoryId,
                                    @RequestParam(defaultValue = "0") int page,
                                    @RequestParam(defaultValue = "12") int size,
+                                   SessionUser user,
+                                   WebRequest request,
+                                   HttpServletResponse response,
                                    Model model) {
         
+        if (notModified(user, request, response)) {
+            return null;
+        }
+        
         Pageable pageable = PageRequest.of(page, size);
-        Page<Product> products = productService.getProductsByCategory(categoryId, pageable);
+        Page<ProductCard> products = productService.getProductsByCategory(categoryId, pageable);
         
         model.addAttribute("products", products);
+        model.addAttribute("productCards", productCards(products, user));
         model.addAttribute("categories", categoryService.getAllActiveCategories());
         model.addAttribute("selectedCategoryId", categoryId);
         
         return "products/list";
     }
+    
+    // Anonymous catalog pages depend on nothing but the catalog rows, so they carry validators and
+    // shared caches may keep them; signed-in pages show the cart badge and are always rendered
+    private boolean notModified(SessionUser user, WebRequest request, HttpServletResponse response) {
+        if (user != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+            return false;
+        }
+        CatalogStamp stamp = catalogVersion.stamp();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(maxAge).cachePublic().getHeaderValue());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+        return request.checkNotModified(stamp.etag(), stamp.lastModified());
+    }
+    
+    private List<String> productCards(Page<ProductCard> products, SessionUser user) {
+        return fragmentCache.renderEach(FragmentCache.CATALOG, "productCard", "product",
+                products.getContent(), Map.of("signedIn", user != null));
+    }
 }
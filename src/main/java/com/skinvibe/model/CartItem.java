@@ -8,10 +8,16 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "cart_items")
+@NamedEntityGraph(name = "CartItem.withProduct",
+        attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product"),
+        subgraphs = @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("category")))
 public class CartItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "cart_items_id_generator")
+    @TableGenerator(name = "cart_items_id_generator", table = "id_generators",
+            pkColumnName = "generator_name", valueColumnName = "next_value",
+            pkColumnValue = "cart_items", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Quantity is required")
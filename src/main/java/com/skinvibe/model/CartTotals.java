@@ -0,0 +1,76 @@
+package com.skinvibe.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of a user's cart, kept in step with cart_items by CartService so that
+ * totals and counts are a primary-key lookup instead of a scan over the cart.
+ */
+@Entity
+@Table(name = "cart_totals")
+public class CartTotals {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "line_count", nullable = false)
+    private Integer lineCount = 0;
+    
+    @Column(name = "unit_count", nullable = false)
+    private Integer unitCount = 0;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public CartTotals() {
+    }
+    
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+    
+    public Integer getLineCount() {
+        return lineCount;
+    }
+    
+    public void setLineCount(Integer lineCount) {
+        this.lineCount = lineCount;
+    }
+    
+    public Integer getUnitCount() {
+        return unitCount;
+    }
+    
+    public void setUnitCount(Integer unitCount) {
+        this.unitCount = unitCount;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,68 @@
+package com.skinvibe.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * A single row moved by every catalog write and by stock leaving through orders, so the catalog
+ * pages are validated with one primary-key read. It lives in the database, where every node sees
+ * the same revision and a restart does not reset it. Cached fragments are keyed on the catalog
+ * revision, which only catalog writes move, because they are keyed on the stock they show.
+ */
+@Entity
+@Table(name = "catalog_stamp")
+public class CatalogStamp {
+    
+    public static final Long ID = 1L;
+    
+    @Id
+    private Long id = ID;
+    
+    @Column(nullable = false)
+    private Long revision = 0L;
+    
+    @Column(name = "catalog_revision", nullable = false)
+    private Long catalogRevision = 0L;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public CatalogStamp() {
+    }
+    
+    public CatalogStamp(Long revision, Long catalogRevision, LocalDateTime updatedAt) {
+        this.revision = revision;
+        this.catalogRevision = catalogRevision;
+        this.updatedAt = updatedAt;
+    }
+    
+    // Weak: the page is rebuilt from the same rows, not replayed byte for byte
+    public String etag() {
+        return "W/\"" + Long.toString(revision, 36) + '"';
+    }
+    
+    // -1 before the first catalog write, which leaves Last-Modified unset
+    public long lastModified() {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getRevision() {
+        return revision;
+    }
+    
+    public Long getCatalogRevision() {
+        return catalogRevision;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,84 @@
+package com.skinvibe.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Checkout request key recorded in the same transaction as the order it created, so a repeated
+ * submission of the checkout form finds the order instead of placing another one. Keys are
+ * chosen by the client, so they are unique per user only.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_created", columnList = "created_at"))
+@IdClass(IdempotencyKey.Key.class)
+public class IdempotencyKey {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Id
+    @Column(name = "idempotency_key", length = 64)
+    private String key;
+    
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Getters and Setters
+    public String getKey() {
+        return key;
+    }
+    
+    public void setKey(String key) {
+        this.key = key;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public Long getOrderId() {
+        return orderId;
+    }
+    
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private Long userId;
+        
+        private String key;
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Objects.equals(userId, other.userId) && Objects.equals(key, other.key);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, key);
+        }
+    }
+}
@@ -11,11 +11,30 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_orders_user_created_at_id", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_orders_status", columnList = "order_status")
+})
+@NamedEntityGraph(name = "Order.withUser", attributeNodes = @NamedAttributeNode("user"))
+@NamedEntityGraph(name = "Order.detail",
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode("shippingAddress"),
+                @NamedAttributeNode("billingAddress"),
+                @NamedAttributeNode(value = "orderItems", subgraph = "orderItems")
+        },
+        subgraphs = {
+                @NamedSubgraph(name = "orderItems", attributeNodes = @NamedAttributeNode(value = "product", subgraph = "product")),
+                @NamedSubgraph(name = "product", attributeNodes = @NamedAttributeNode("category"))
+        })
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id_generator")
+    @TableGenerator(name = "orders_id_generator", table = "id_generators",
+            pkColumnName = "generator_name", valueColumnName = "next_value",
+            pkColumnValue = "orders", allocationSize = 50)
     private Long id;
     
     @NotBlank(message = "Order number is required")
@@ -66,6 +85,10 @@ public class Order {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Set by SalesRollupRepository once the order is counted in the sales rollup
+    @Column(name = "rolled_up_at", insertable = false, updatable = false)
+    private LocalDateTime rolledUpAt;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
@@ -216,6 +239,10 @@ public class Order {
         this.updatedAt = updatedAt;
     }
     
+    public LocalDateTime getRolledUpAt() {
+        return rolledUpAt;
+    }
+    
     public User getUser() {
         return user;
     }
@@ -254,7 +281,19 @@ public class Order {
     }
     
     public enum OrderStatus {
-        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED, RETURNED
+        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED, RETURNED;
+        
+        // Forward moves along the fulfilment flow; cancelled and returned orders are final
+        public boolean canTransitionTo(OrderStatus target) {
+            return switch (this) {
+                case PENDING -> target == CONFIRMED || target == PROCESSING || target == CANCELLED;
+                case CONFIRMED -> target == PROCESSING || target == SHIPPED || target == CANCELLED;
+                case PROCESSING -> target == SHIPPED || target == CANCELLED;
+                case SHIPPED -> target == DELIVERED || target == RETURNED;
+                case DELIVERED -> target == RETURNED;
+                case CANCELLED, RETURNED -> false;
+            };
+        }
     }
     
     public enum PaymentStatus {
@@ -13,7 +13,10 @@ import java.time.LocalDateTime;
 public class OrderItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_items_id_generator")
+    @TableGenerator(name = "order_items_id_generator", table = "id_generators",
+            pkColumnName = "generator_name", valueColumnName = "next_value",
+            pkColumnValue = "order_items", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Quantity is required")
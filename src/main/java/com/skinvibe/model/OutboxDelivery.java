@@ -0,0 +1,61 @@
+package com.skinvibe.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Marks an outbox event as handled by one consumer. It is written in that consumer's transaction,
+ * so a retried event only goes to the consumers that have not handled it yet.
+ */
+@Entity
+@Table(name = "outbox_deliveries")
+@IdClass(OutboxDelivery.Key.class)
+public class OutboxDelivery {
+    
+    // No foreign key: the relay holds the event row locked while consumers commit beside it
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+    
+    @Id
+    @Column(length = 100)
+    private String consumer;
+    
+    @Column(name = "delivered_at", nullable = false)
+    private LocalDateTime deliveredAt;
+    
+    // Getters
+    public Long getEventId() {
+        return eventId;
+    }
+    
+    public String getConsumer() {
+        return consumer;
+    }
+    
+    public LocalDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private Long eventId;
+        
+        private String consumer;
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(eventId, key.eventId) && Objects.equals(consumer, key.consumer);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(eventId, consumer);
+        }
+    }
+}
@@ -5,13 +5,18 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "products", indexes = @Index(name = "idx_products_active_created_at_id", columnList = "is_active, created_at, id"))
+@NamedEntityGraph(name = "Product.withCategory", attributeNodes = @NamedAttributeNode("category"))
 public class Product {
     
     @Id
@@ -0,0 +1,14 @@
+package com.skinvibe.model;
+
+import java.math.BigDecimal;
+
+/**
+ * The part of a product that listing pages show, read with a constructor expression: the TEXT
+ * columns stay in the database and nothing is added to the persistence context.
+ */
+public record ProductCard(Long id, String name, String shortDescription, BigDecimal price,
+                          Integer stockQuantity, String imageUrl, String categoryName) {
+    
+    // Listings abbreviate the description to 100 characters; one more keeps the ellipsis correct
+    public static final int SHORT_DESCRIPTION_LENGTH = 101;
+}
@@ -0,0 +1,74 @@
+package com.skinvibe.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Per-category daily sales, excluding cancelled orders.
+ */
+@Entity
+@Table(name = "sales_daily_category", indexes = @Index(name = "idx_sales_daily_category_date", columnList = "sales_date"))
+@IdClass(SalesDailyCategory.Key.class)
+public class SalesDailyCategory {
+    
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+    
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+    
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+    
+    @Column(nullable = false)
+    private Long units = 0L;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+    
+    // Getters
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+    
+    public Long getCategoryId() {
+        return categoryId;
+    }
+    
+    public Long getOrderCount() {
+        return orderCount;
+    }
+    
+    public Long getUnits() {
+        return units;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private LocalDate salesDate;
+        
+        private Long categoryId;
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(salesDate, key.salesDate) && Objects.equals(categoryId, key.categoryId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(salesDate, categoryId);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.skinvibe.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Per-product daily sales, excluding cancelled orders; feeds the top sellers list.
+ */
+@Entity
+@Table(name = "sales_daily_product", indexes = @Index(name = "idx_sales_daily_product_date", columnList = "sales_date"))
+@IdClass(SalesDailyProduct.Key.class)
+public class SalesDailyProduct {
+    
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+    
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+    
+    @Column(nullable = false)
+    private Long units = 0L;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+    
+    // Getters
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public Long getOrderCount() {
+        return orderCount;
+    }
+    
+    public Long getUnits() {
+        return units;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private LocalDate salesDate;
+        
+        private Long productId;
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(salesDate, key.salesDate) && Objects.equals(productId, key.productId);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(salesDate, productId);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.skinvibe.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Sales rollup of orders, units and item revenue per day and order status. Rows are written
+ * with SQL upserts by SalesRollupRepository, never through the entity manager.
+ */
+@Entity
+@Table(name = "sales_daily_status", indexes = @Index(name = "idx_sales_daily_status_date", columnList = "sales_date"))
+@IdClass(SalesDailyStatus.Key.class)
+public class SalesDailyStatus {
+    
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status", length = 20)
+    private Order.OrderStatus orderStatus;
+    
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+    
+    @Column(nullable = false)
+    private Long units = 0L;
+    
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+    
+    // Getters
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+    
+    public Order.OrderStatus getOrderStatus() {
+        return orderStatus;
+    }
+    
+    public Long getOrderCount() {
+        return orderCount;
+    }
+    
+    public Long getUnits() {
+        return units;
+    }
+    
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+    
+    public static class Key implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private LocalDate salesDate;
+        
+        private Order.OrderStatus orderStatus;
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(salesDate, key.salesDate) && Objects.equals(orderStatus, key.orderStatus);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(salesDate, orderStatus);
+        }
+    }
+}
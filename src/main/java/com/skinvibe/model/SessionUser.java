@@ -0,0 +1,53 @@
+package com.skinvibe.model;
+
+import java.io.Serializable;
+
+/**
+ * Compact, immutable principal kept in the HTTP session instead of the {@link User} entity.
+ */
+public final class SessionUser implements Serializable {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final Long id;
+    
+    private final String username;
+    
+    private final User.Role role;
+    
+    private final String displayName;
+    
+    public SessionUser(Long id, String username, User.Role role, String displayName) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.displayName = displayName;
+    }
+    
+    public static SessionUser from(User user) {
+        String displayName = user.getFirstName() != null && !user.getFirstName().isBlank()
+                ? user.getFirstName()
+                : user.getUsername();
+        return new SessionUser(user.getId(), user.getUsername(), user.getRole(), displayName);
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public User.Role getRole() {
+        return role;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+    
+    public boolean isAdmin() {
+        return role == User.Role.ADMIN;
+    }
+}
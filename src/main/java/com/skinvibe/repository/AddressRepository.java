@@ -1,7 +1,6 @@
 package com.skinvibe.repository;
 
 import com.skinvibe.model.Address;
-import com.skinvibe.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,11 +10,11 @@ import java.util.Optional;
 @Repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
     
-    List<Address> findByUser(User user);
+    List<Address> findByUserId(Long userId);
     
-    List<Address> findByUserAndAddressType(User user, Address.AddressType addressType);
+    List<Address> findByUserIdAndAddressType(Long userId, Address.AddressType addressType);
     
-    Optional<Address> findByUserAndIsDefaultTrue(User user);
+    Optional<Address> findByUserIdAndIsDefaultTrue(Long userId);
     
-    Optional<Address> findByUserAndIsDefaultTrueAndAddressType(User user, Address.AddressType addressType);
+    Optional<Address> findByUserIdAndIsDefaultTrueAndAddressType(Long userId, Address.AddressType addressType);
 }
@@ -1,21 +1,30 @@
 package com.skinvibe.repository;
 
 import com.skinvibe.model.CartItem;
-import com.skinvibe.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     
-    List<CartItem> findByUser(User user);
+    @EntityGraph("CartItem.withProduct")
+    List<CartItem> findByUserId(Long userId);
     
-    Optional<CartItem> findByUserAndProductId(User user, Long productId);
+    Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
     
-    void deleteByUser(User user);
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
     
-    int countByUser(User user);
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.user.id IN :userIds")
+    void deleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
@@ -0,0 +1,7 @@
+package com.skinvibe.repository;
+
+public interface CartTotalsRebuildRepository {
+    
+    // Recomputes a cart's totals from its items, creating the row if the cart has none yet
+    void rebuild(Long userId);
+}
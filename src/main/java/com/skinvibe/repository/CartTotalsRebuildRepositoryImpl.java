@@ -0,0 +1,39 @@
+package com.skinvibe.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class CartTotalsRebuildRepositoryImpl implements CartTotalsRebuildRepository {
+    
+    private static final List<String> COLUMNS = List.of("user_id", "total_amount", "line_count", "unit_count", "updated_at");
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private UpsertSql upsertSql;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @Transactional
+    public void rebuild(Long userId) {
+        // Cart item changes still pending in the session must be counted; the user row gives an
+        // empty cart its row of zeros
+        entityManager.flush();
+        jdbcTemplate.update(upsertSql.upsert("cart_totals", List.of("user_id"), COLUMNS,
+                "SELECT u.id AS user_id, COALESCE(SUM(p.price * c.quantity), 0) AS total_amount, "
+                        + "COUNT(c.id) AS line_count, COALESCE(SUM(c.quantity), 0) AS unit_count, CURRENT_TIMESTAMP AS updated_at "
+                        + "FROM users u LEFT JOIN cart_items c ON c.user_id = u.id LEFT JOIN products p ON p.id = c.product_id "
+                        + "WHERE u.id = ? GROUP BY u.id",
+                "total_amount = " + UpsertSql.NEW_ROW + ".total_amount, line_count = " + UpsertSql.NEW_ROW + ".line_count, "
+                        + "unit_count = " + UpsertSql.NEW_ROW + ".unit_count, updated_at = " + UpsertSql.NEW_ROW + ".updated_at"),
+                userId);
+    }
+}
@@ -0,0 +1,42 @@
+package com.skinvibe.repository;
+
+import com.skinvibe.model.CartTotals;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+@Repository
+public interface CartTotalsRepository extends JpaRepository<CartTotals, Long>, CartTotalsRebuildRepository {
+    
+    // Applied in the database so concurrent changes to the same cart cannot lose an update
+    @Modifying
+    @Query("UPDATE CartTotals t SET t.totalAmount = t.totalAmount + :amount, t.lineCount = t.lineCount + :lines, "
+            + "t.unitCount = t.unitCount + :units, t.updatedAt = CURRENT_TIMESTAMP WHERE t.userId = :userId")
+    int applyDelta(@Param("userId") Long userId, @Param("amount") BigDecimal amount,
+                   @Param("lines") int lines, @Param("units") int units);
+    
+    @Modifying
+    @Query("UPDATE CartTotals t SET t.totalAmount = 0, t.lineCount = 0, t.unitCount = 0, "
+            + "t.updatedAt = CURRENT_TIMESTAMP WHERE t.userId = :userId")
+    int reset(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM CartTotals t WHERE t.userId IN :userIds")
+    void deleteByUserIdIn(@Param("userIds") Collection<Long> userIds);
+    
+    // Totals priced with a product's old price are dropped and rebuilt on the next read. Native
+    // writes name the table they touch, or Hibernate clears every second-level cache region
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cart_totals"))
+    @Query(value = "DELETE FROM cart_totals WHERE user_id IN "
+            + "(SELECT c.user_id FROM cart_items c WHERE c.product_id = :productId)", nativeQuery = true)
+    void deleteByProductId(@Param("productId") Long productId);
+}
@@ -0,0 +1,27 @@
+package com.skinvibe.repository;
+
+import com.skinvibe.model.CatalogStamp;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CatalogStampRepository extends JpaRepository<CatalogStamp, Long> {
+    
+    // Joins the writer's transaction, so the stamp moves exactly when the catalog rows do
+    @Modifying
+    @Transactional
+    @Query("UPDATE CatalogStamp s SET s.revision = s.revision + 1, s.updatedAt = :now WHERE s.id = 1")
+    int bump(@Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE CatalogStamp s SET s.revision = s.revision + 1, s.catalogRevision = s.catalogRevision + 1, "
+            + "s.updatedAt = :now WHERE s.id = 1")
+    int bumpCatalog(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,33 @@
+package com.skinvibe.repository;
+
+import com.skinvibe.model.IdempotencyKey;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKey.Key> {
+    
+    @Query("SELECT k.orderId FROM IdempotencyKey k WHERE k.userId = :userId AND k.key = :key")
+    Optional<Long> findOrderId(@Param("key") String key, @Param("userId") Long userId);
+    
+    // A plain insert, so a key the user already took fails on the primary key instead of being merged;
+    // a concurrent insert of the same user and key waits on the index until the first transaction ends
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "idempotency_keys"))
+    @Query(value = "INSERT INTO idempotency_keys (user_id, idempotency_key, order_id, created_at) "
+            + "VALUES (:userId, :key, :orderId, CURRENT_TIMESTAMP)", nativeQuery = true)
+    void insert(@Param("key") String key, @Param("userId") Long userId, @Param("orderId") Long orderId);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
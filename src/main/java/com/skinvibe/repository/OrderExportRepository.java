@@ -0,0 +1,86 @@
+package com.skinvibe.repository;
+
+import com.skinvibe.model.Order;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads orders for export as one row per order item, joined with the customer and product,
+ * through a forward-only cursor. Rows are handed over one at a time as the driver fetches them,
+ * so an export of any size holds only one fetch of rows in memory.
+ */
+@Repository
+public class OrderExportRepository {
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    // MySQL only fetches in chunks with useCursorFetch=true on the connection URL
+    @Value("${skinvibe.export.fetch-size:1000}")
+    private int fetchSize;
+    
+    private JdbcTemplate streamingJdbcTemplate;
+    
+    @PostConstruct
+    void init() {
+        streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+    
+    /**
+     * Streams the lines of orders created in [from, to) in (created_at, id) order, so an order's
+     * lines always arrive together. Null bounds and status are not filtered on.
+     */
+    public void streamOrderLines(LocalDateTime from, LocalDateTime to, Order.OrderStatus status,
+                                 Consumer<OrderLine> action) {
+        StringBuilder sql = new StringBuilder("SELECT o.id, o.order_number, o.created_at, o.order_status, o.payment_status, "
+                + "o.payment_method, u.username, u.email, o.total_amount, o.shipping_cost, o.tax_amount, o.discount_amount, "
+                + "i.product_id, p.name, i.quantity, i.unit_price, i.total_price "
+                + "FROM orders o JOIN users u ON u.id = o.user_id "
+                + "LEFT JOIN order_items i ON i.order_id = o.id LEFT JOIN products p ON p.id = i.product_id WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND o.created_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND o.created_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        if (status != null) {
+            sql.append(" AND o.order_status = ?");
+            args.add(status.name());
+        }
+        // Matches idx_orders_created_at_id, so the database can stream without sorting the whole result
+        sql.append(" ORDER BY o.created_at, o.id");
+        
+        streamingJdbcTemplate.query(sql.toString(), rs -> {
+            Timestamp createdAt = rs.getTimestamp(3);
+            action.accept(new OrderLine(rs.getLong(1), rs.getString(2),
+                    createdAt != null ? createdAt.toLocalDateTime() : null,
+                    rs.getString(4), rs.getString(5), rs.getString(6), rs.getString(7), rs.getString(8),
+                    rs.getBigDecimal(9), rs.getBigDecimal(10), rs.getBigDecimal(11), rs.getBigDecimal(12),
+                    rs.getObject(13, Long.class), rs.getString(14), rs.getObject(15, Integer.class),
+                    rs.getBigDecimal(16), rs.getBigDecimal(17)));
+        }, args.toArray());
+    }
+    
+    // Item fields are null for an order without items
+    public record OrderLine(Long orderId, String orderNumber, LocalDateTime createdAt, String orderStatus,
+                            String paymentStatus, String paymentMethod, String username, String email,
+                            BigDecimal totalAmount, BigDecimal shippingCost, BigDecimal taxAmount,
+                            BigDecimal discountAmount, Long productId, String productName, Integer quantity,
+                            BigDecimal unitPrice, BigDecimal itemTotal) {
+    }
+}
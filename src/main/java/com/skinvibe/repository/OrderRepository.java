@@ -1,21 +1,70 @@
 package com.skinvibe.repository;
 
 import com.skinvibe.model.Order;
-import com.skinvibe.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
-    List<Order> findByUser(User user);
+    @Override
+    @EntityGraph("Order.withUser")
+    Page<Order> findAll(Pageable pageable);
     
-    Page<Order> findByUser(User user, Pageable pageable);
+    @Override
+    @EntityGraph("Order.detail")
+    Optional<Order> findById(Long id);
+    
+    // Serializes status changes with the sales rollup, which locks the same row before counting it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findByIdForUpdate(@Param("id") Long id);
+    
+    // Locks a chunk of a bulk status change and reads the statuses it moves from
+    @Query(value = "SELECT id, order_status FROM orders WHERE id IN :ids FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockStatuses(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT o.id FROM Order o WHERE o.orderStatus = :status AND o.id > :afterId "
+            + "AND (:from IS NULL OR o.createdAt >= :from) AND (:to IS NULL OR o.createdAt < :to) ORDER BY o.id")
+    List<Long> findIdsByStatus(@Param("status") Order.OrderStatus status, @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to, @Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.orderStatus = :status "
+            + "AND (:from IS NULL OR o.createdAt >= :from) AND (:to IS NULL OR o.createdAt < :to)")
+    long countByStatus(@Param("status") Order.OrderStatus status, @Param("from") LocalDateTime from,
+                       @Param("to") LocalDateTime to);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.orderStatus = :status, o.updatedAt = :now WHERE o.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") Order.OrderStatus status,
+                     @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.orderStatus = :status, o.shippedAt = :now, o.updatedAt = :now WHERE o.id IN :ids")
+    int updateStatusShipped(@Param("ids") Collection<Long> ids, @Param("status") Order.OrderStatus status,
+                            @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE Order o SET o.orderStatus = :status, o.deliveredAt = :now, o.updatedAt = :now WHERE o.id IN :ids")
+    int updateStatusDelivered(@Param("ids") Collection<Long> ids, @Param("status") Order.OrderStatus status,
+                              @Param("now") LocalDateTime now);
+    
+    List<Order> findByUserId(Long userId);
+    
+    Page<Order> findByUserId(Long userId, Pageable pageable);
     
     Optional<Order> findByOrderNumber(String orderNumber);
     
@@ -24,4 +73,24 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByPaymentStatus(Order.PaymentStatus paymentStatus);
     
     long countByOrderStatus(Order.OrderStatus orderStatus);
+    
+    @Query("SELECT o.orderStatus, COUNT(o) FROM Order o GROUP BY o.orderStatus")
+    List<Object[]> countGroupByOrderStatus();
+    
+    // Keyset pagination on (created_at, id): no OFFSET scan and no COUNT query
+    @EntityGraph("Order.withUser")
+    List<Order> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+    
+    @EntityGraph("Order.withUser")
+    @Query("SELECT o FROM Order o WHERE o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findAllBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    List<Order> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId AND " +
+           "(o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findByUserIdBefore(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id, Pageable pageable);
 }
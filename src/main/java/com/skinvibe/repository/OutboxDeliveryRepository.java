@@ -0,0 +1,46 @@
+package com.skinvibe.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * SQL behind outbox_deliveries, the record of which consumer has handled which outbox event.
+ */
+@Repository
+public class OutboxDeliveryRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // event id -> consumers that have handled it
+    public Map<Long, Set<String>> findConsumersByEventId(Collection<Long> eventIds) {
+        Map<Long, Set<String>> consumers = new HashMap<>();
+        if (eventIds.isEmpty()) {
+            return consumers;
+        }
+        jdbcTemplate.query("SELECT event_id, consumer FROM outbox_deliveries WHERE event_id IN ("
+                + String.join(", ", Collections.nCopies(eventIds.size(), "?")) + ")", rs -> {
+            consumers.computeIfAbsent(rs.getLong(1), id -> new HashSet<>()).add(rs.getString(2));
+        }, eventIds.toArray());
+        return consumers;
+    }
+    
+    public void record(Collection<Long> eventIds, String consumer, LocalDateTime now) {
+        Timestamp deliveredAt = Timestamp.valueOf(now);
+        List<Object[]> batchArgs = new ArrayList<>(eventIds.size());
+        for (Long eventId : eventIds) {
+            batchArgs.add(new Object[]{eventId, consumer, deliveredAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_deliveries (event_id, consumer, delivered_at) VALUES (?, ?, ?)", batchArgs);
+    }
+    
+    public int deleteForEventsProcessedBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM outbox_deliveries WHERE event_id IN "
+                + "(SELECT id FROM outbox_events WHERE processed_at < ?)", Timestamp.valueOf(cutoff));
+    }
+}
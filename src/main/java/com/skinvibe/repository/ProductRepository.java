@@ -1,22 +1,53 @@
 package com.skinvibe.repository;
 
 import com.skinvibe.model.Product;
+import com.skinvibe.model.ProductCard;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository {
     
-    List<Product> findByIsActiveTrue();
+    // Listing pages read cards, not entities. They are left out of the query cache because their stock
+    // column changes through JDBC, which never invalidates cached query results
+    String SELECT_CARD = "SELECT new com.skinvibe.model.ProductCard(p.id, p.name, "
+            + "substring(p.description, 1, " + ProductCard.SHORT_DESCRIPTION_LENGTH + "), "
+            + "p.price, p.stockQuantity, p.imageUrl, c.name) FROM Product p LEFT JOIN p.category c ";
+    
+    @Override
+    @EntityGraph("Product.withCategory")
+    Optional<Product> findById(Long id);
+    
+    @Override
+    @EntityGraph("Product.withCategory")
+    Page<Product> findAll(Pageable pageable);
     
-    List<Product> findByIsActiveTrueAndIsFeaturedTrue();
+    @EntityGraph("Product.withCategory")
+    List<Product> findByIdIn(Collection<Long> ids);
+    
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT p.id FROM Product p WHERE p.category.id = :categoryId")
+    List<Long> findIdsByCategoryId(@Param("categoryId") Long categoryId);
+    
+    // The query cache holds ids only; the products themselves come from the entity region
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findByIsActiveTrue();
     
     List<Product> findByCategoryIdAndIsActiveTrue(Long categoryId);
     
@@ -24,19 +55,33 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     List<Product> findByPriceBetweenAndIsActiveTrue(BigDecimal minPrice, BigDecimal maxPrice);
     
-    @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
-           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    List<Product> searchProducts(@Param("keyword") String keyword);
+    boolean existsByIdInAndIsFeaturedTrue(Collection<Long> ids);
+    
+    // Keyset pagination on (created_at, id): no OFFSET scan and no COUNT query
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findByIsActiveTrueOrderByCreatedAtDescIdDesc(Pageable pageable);
     
     @Query("SELECT p FROM Product p WHERE p.isActive = true AND " +
-           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<Product> searchProducts(@Param("keyword") String keyword, Pageable pageable);
+           "(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findActiveBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query(value = SELECT_CARD + "WHERE p.isActive = true",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true")
+    Page<ProductCard> findActiveCards(Pageable pageable);
+    
+    @Query(SELECT_CARD + "WHERE p.isActive = true AND p.isFeatured = true")
+    List<ProductCard> findFeaturedCards();
     
-    Page<Product> findByIsActiveTrue(Pageable pageable);
+    @Query(value = SELECT_CARD + "WHERE p.isActive = true AND p.category.id = :categoryId",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true AND p.category.id = :categoryId")
+    Page<ProductCard> findActiveCardsByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
     
-    Page<Product> findByCategoryIdAndIsActiveTrue(Long categoryId, Pageable pageable);
+    @Query(value = SELECT_CARD + "WHERE p.isActive = true AND p.price BETWEEN :minPrice AND :maxPrice",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true AND p.price BETWEEN :minPrice AND :maxPrice")
+    Page<ProductCard> findActiveCardsByPriceBetween(@Param("minPrice") BigDecimal minPrice,
+                                                    @Param("maxPrice") BigDecimal maxPrice, Pageable pageable);
     
-    Page<Product> findByPriceBetweenAndIsActiveTrue(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
+    @Query(SELECT_CARD + "WHERE p.id IN :ids")
+    List<ProductCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,11 @@
+package com.skinvibe.repository;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductStockRepository {
+    
+    // Decrements stock for every product in one JDBC batch and returns the ids that lacked stock;
+    // unexpired holds of other users are not available to the buyer
+    List<Long> decrementStock(Map<Long, Integer> quantitiesByProductId, Long buyerId);
+}
@@ -0,0 +1,58 @@
+package com.skinvibe.repository;
+
+import com.skinvibe.model.Product;
+import com.skinvibe.service.TransactionHooks;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+    
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock_quantity = stock_quantity - ?, updated_at = ? WHERE id = ? AND stock_quantity >= ? + "
+            + "(SELECT COALESCE(SUM(r.quantity), 0) FROM stock_reservations r "
+            + "WHERE r.product_id = ? AND r.user_id <> ? AND r.expires_at > ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Override
+    public List<Long> decrementStock(Map<Long, Integer> quantitiesByProductId, Long buyerId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> productIds = new ArrayList<>(quantitiesByProductId.keySet());
+        List<Object[]> batchArgs = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            Integer quantity = quantitiesByProductId.get(productId);
+            batchArgs.add(new Object[]{quantity, now, productId, quantity, productId, buyerId, now});
+        }
+        
+        int[] updateCounts = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, batchArgs);
+        evictFromSecondLevelCache(productIds);
+        
+        // A row count of zero means the stock guard rejected the decrement
+        List<Long> insufficientStock = new ArrayList<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == 0) {
+                insufficientStock.add(productIds.get(i));
+            }
+        }
+        return insufficientStock;
+    }
+    
+    // The batch bypasses Hibernate, so the cached products are evicted by hand: now, and again once the
+    // transaction ends in case another session cached the old stock before this one committed
+    private void evictFromSecondLevelCache(List<Long> productIds) {
+        Runnable evict = () -> productIds.forEach(id -> entityManagerFactory.getCache().evict(Product.class, id));
+        evict.run();
+        TransactionHooks.afterCompletion(evict);
+    }
+}
@@ -0,0 +1,235 @@
+package com.skinvibe.repository;
+
+import com.skinvibe.model.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * SQL behind the sales rollup tables. Orders are added to the daily aggregates with one
+ * insert-or-update per table (see {@link UpsertSql}), so a batch costs three statements however many
+ * orders it holds. orders.rolled_up_at marks what has been counted, which keeps a redelivered
+ * batch from counting an order twice.
+ */
+@Repository
+public class SalesRollupRepository {
+    
+    private static final String CANCELLED = "'" + Order.OrderStatus.CANCELLED.name() + "'";
+    
+    private static final List<String> COLUMNS_BY_STATUS = List.of("sales_date", "order_status", "order_count", "units", "revenue");
+    private static final List<String> COLUMNS_BY_PRODUCT = List.of("sales_date", "product_id", "order_count", "units", "revenue");
+    private static final List<String> COLUMNS_BY_CATEGORY = List.of("sales_date", "category_id", "order_count", "units", "revenue");
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private UpsertSql upsertSql;
+    
+    /**
+     * Counts the given orders that are not counted yet and returns how many that was.
+     */
+    public int addOrders(Collection<Long> orderIds, LocalDateTime now) {
+        String placeholders = placeholders(orderIds.size());
+        
+        // The row locks also hold off status changes until these orders are counted
+        List<Long> pending = jdbcTemplate.queryForList("SELECT id FROM orders WHERE id IN (" + placeholders
+                + ") AND rolled_up_at IS NULL FOR UPDATE", Long.class, orderIds.toArray());
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        
+        String filter = "o.id IN (" + placeholders(pending.size()) + ")";
+        Object[] args = pending.toArray();
+        upsertStatus(1, null, filter, args);
+        upsertProducts(1, filter + " AND o.order_status <> " + CANCELLED, args);
+        upsertCategories(1, filter + " AND o.order_status <> " + CANCELLED, args);
+        
+        List<Object> markArgs = new ArrayList<>(pending.size() + 1);
+        markArgs.add(Timestamp.valueOf(now));
+        markArgs.addAll(pending);
+        jdbcTemplate.update("UPDATE orders SET rolled_up_at = ? WHERE id IN (" + placeholders(pending.size()) + ")",
+                markArgs.toArray());
+        return pending.size();
+    }
+    
+    /**
+     * Moves counted orders from one status to another. Cancelling takes their items out of the
+     * product and category aggregates; reinstating a cancelled order puts them back.
+     */
+    public void moveOrders(Collection<Long> orderIds, Order.OrderStatus from, Order.OrderStatus to) {
+        String filter = "o.id IN (" + placeholders(orderIds.size()) + ") AND o.rolled_up_at IS NOT NULL";
+        Object[] args = orderIds.toArray();
+        upsertStatus(-1, from, filter, args);
+        upsertStatus(1, to, filter, args);
+        
+        int sign = to == Order.OrderStatus.CANCELLED ? -1 : from == Order.OrderStatus.CANCELLED ? 1 : 0;
+        if (sign != 0) {
+            upsertProducts(sign, filter, args);
+            upsertCategories(sign, filter, args);
+        }
+    }
+    
+    /**
+     * Recomputes one day from its orders and returns how many orders it has. Orders not counted
+     * yet are marked first, so a placed event still in flight for one of them becomes a no-op.
+     */
+    public int rebuildDay(LocalDate day, LocalDateTime now) {
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        jdbcTemplate.update("UPDATE orders SET rolled_up_at = ? WHERE created_at >= ? AND created_at < ? "
+                + "AND rolled_up_at IS NULL", Timestamp.valueOf(now), start, end);
+        
+        // Status moves committed meanwhile wait on these rows, then apply on top of the recount
+        Date salesDate = Date.valueOf(day);
+        jdbcTemplate.update("DELETE FROM sales_daily_status WHERE sales_date = ?", salesDate);
+        jdbcTemplate.update("DELETE FROM sales_daily_product WHERE sales_date = ?", salesDate);
+        jdbcTemplate.update("DELETE FROM sales_daily_category WHERE sales_date = ?", salesDate);
+        Integer orders = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE created_at >= ? AND created_at < ?",
+                Integer.class, start, end);
+        if (orders == null || orders == 0) {
+            return 0;
+        }
+        
+        String filter = "o.created_at >= ? AND o.created_at < ?";
+        upsertStatus(1, null, filter, start, end);
+        upsertProducts(1, filter + " AND o.order_status <> " + CANCELLED, start, end);
+        upsertCategories(1, filter + " AND o.order_status <> " + CANCELLED, start, end);
+        return orders;
+    }
+    
+    /**
+     * Drops rows for days outside the given range, e.g. left behind by deleted orders.
+     */
+    public void deleteOutside(LocalDate first, LocalDate last) {
+        for (String table : List.of("sales_daily_status", "sales_daily_product", "sales_daily_category")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE sales_date < ? OR sales_date > ?",
+                    Date.valueOf(first), Date.valueOf(last));
+        }
+    }
+    
+    public void deleteAll() {
+        for (String table : List.of("sales_daily_status", "sales_daily_product", "sales_daily_category")) {
+            jdbcTemplate.update("DELETE FROM " + table);
+        }
+    }
+    
+    public Optional<LocalDate[]> findOrderDateRange() {
+        return jdbcTemplate.query("SELECT MIN(created_at), MAX(created_at) FROM orders", rs -> {
+            rs.next();
+            Timestamp first = rs.getTimestamp(1);
+            Timestamp last = rs.getTimestamp(2);
+            return first == null ? Optional.empty()
+                    : Optional.of(new LocalDate[]{first.toLocalDateTime().toLocalDate(), last.toLocalDateTime().toLocalDate()});
+        });
+    }
+    
+    // Cancelled orders are left out of the sales figures
+    public List<DailySales> findDailySales(LocalDate from) {
+        return jdbcTemplate.query("SELECT sales_date, SUM(order_count), SUM(units), SUM(revenue) FROM sales_daily_status "
+                        + "WHERE sales_date >= ? AND order_status <> " + CANCELLED + " GROUP BY sales_date ORDER BY sales_date",
+                (rs, rowNum) -> new DailySales(rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4)),
+                Date.valueOf(from));
+    }
+    
+    public Map<Order.OrderStatus, Long> countOrdersByStatus(LocalDate from) {
+        Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+        jdbcTemplate.query("SELECT order_status, SUM(order_count) FROM sales_daily_status WHERE sales_date >= ? "
+                        + "GROUP BY order_status",
+                rs -> {
+                    counts.put(Order.OrderStatus.valueOf(rs.getString(1)), rs.getLong(2));
+                }, Date.valueOf(from));
+        return counts;
+    }
+    
+    public List<ItemSales> findTopProducts(LocalDate from, int limit) {
+        return jdbcTemplate.query("SELECT s.product_id, p.name, SUM(s.units), SUM(s.revenue) FROM sales_daily_product s "
+                        + "JOIN products p ON p.id = s.product_id WHERE s.sales_date >= ? "
+                        + "GROUP BY s.product_id, p.name ORDER BY SUM(s.revenue) DESC LIMIT ?",
+                (rs, rowNum) -> new ItemSales(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getBigDecimal(4)),
+                Date.valueOf(from), limit);
+    }
+    
+    public List<ItemSales> findCategorySales(LocalDate from) {
+        return jdbcTemplate.query("SELECT s.category_id, c.name, SUM(s.units), SUM(s.revenue) FROM sales_daily_category s "
+                        + "JOIN categories c ON c.id = s.category_id WHERE s.sales_date >= ? "
+                        + "GROUP BY s.category_id, c.name ORDER BY SUM(s.revenue) DESC",
+                (rs, rowNum) -> new ItemSales(rs.getLong(1), rs.getString(2), rs.getLong(3), rs.getBigDecimal(4)),
+                Date.valueOf(from));
+    }
+    
+    // status null keeps each order's own status; otherwise the order is counted under that status
+    private void upsertStatus(int sign, Order.OrderStatus status, String filter, Object... args) {
+        String statusColumn = status == null ? "o.order_status" : "'" + status.name() + "'";
+        jdbcTemplate.update(upsertSql.upsert("sales_daily_status", List.of("sales_date", "order_status"), COLUMNS_BY_STATUS,
+                "SELECT CAST(o.created_at AS DATE) AS sales_date, " + statusColumn + " AS order_status, "
+                        + sign + " * COUNT(DISTINCT o.id) AS order_count, " + sign + " * COALESCE(SUM(i.quantity), 0) AS units, "
+                        + sign + " * COALESCE(SUM(i.total_price), 0) AS revenue "
+                        + "FROM orders o LEFT JOIN order_items i ON i.order_id = o.id WHERE " + filter + " "
+                        + "GROUP BY CAST(o.created_at AS DATE)" + (status == null ? ", o.order_status" : ""),
+                addTo("sales_daily_status")), args);
+    }
+    
+    private void upsertProducts(int sign, String filter, Object... args) {
+        jdbcTemplate.update(upsertSql.upsert("sales_daily_product", List.of("sales_date", "product_id"), COLUMNS_BY_PRODUCT,
+                "SELECT CAST(o.created_at AS DATE) AS sales_date, i.product_id AS product_id, "
+                        + sign + " * COUNT(DISTINCT o.id) AS order_count, " + sign + " * SUM(i.quantity) AS units, "
+                        + sign + " * SUM(i.total_price) AS revenue "
+                        + "FROM orders o JOIN order_items i ON i.order_id = o.id WHERE " + filter + " "
+                        + "GROUP BY CAST(o.created_at AS DATE), i.product_id",
+                addTo("sales_daily_product")), args);
+    }
+    
+    // Products is outer joined so the planner starts from the filtered orders, never a products scan;
+    // order_items.product_id is a foreign key, so every item still finds its product
+    private void upsertCategories(int sign, String filter, Object... args) {
+        jdbcTemplate.update(upsertSql.upsert("sales_daily_category", List.of("sales_date", "category_id"), COLUMNS_BY_CATEGORY,
+                "SELECT CAST(o.created_at AS DATE) AS sales_date, p.category_id AS category_id, "
+                        + sign + " * COUNT(DISTINCT o.id) AS order_count, " + sign + " * SUM(i.quantity) AS units, "
+                        + sign + " * SUM(i.total_price) AS revenue "
+                        + "FROM orders o JOIN order_items i ON i.order_id = o.id LEFT JOIN products p ON p.id = i.product_id "
+                        + "WHERE " + filter + " "
+                        + "GROUP BY CAST(o.created_at AS DATE), p.category_id",
+                addTo("sales_daily_category")), args);
+    }
+    
+    private static String addTo(String table) {
+        return "order_count = " + table + ".order_count + " + UpsertSql.NEW_ROW + ".order_count, "
+                + "units = " + table + ".units + " + UpsertSql.NEW_ROW + ".units, "
+                + "revenue = " + table + ".revenue + " + UpsertSql.NEW_ROW + ".revenue";
+    }
+    
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
+    public record DailySales(LocalDate salesDate, long orderCount, long units, BigDecimal revenue) {
+        
+        // Bar height for the dashboard chart, relative to the best day shown
+        public int percentOf(BigDecimal max) {
+            return percent(revenue, max);
+        }
+    }
+    
+    public record ItemSales(Long id, String name, long units, BigDecimal revenue) {
+        
+        public int percentOf(BigDecimal total) {
+            return percent(revenue, total);
+        }
+    }
+    
+    private static int percent(BigDecimal value, BigDecimal whole) {
+        if (whole == null || whole.signum() <= 0) {
+            return 0;
+        }
+        return value.multiply(BigDecimal.valueOf(100)).divide(whole, 0, RoundingMode.HALF_UP).intValue();
+    }
+}
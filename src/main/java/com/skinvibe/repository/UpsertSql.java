@@ -0,0 +1,49 @@
+package com.skinvibe.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds insert-or-update statements from a SELECT whose columns are named after the target
+ * table's. The row the SELECT produced is new_row in the update assignments, and the row
+ * already stored is the table itself, e.g. "units = sales_daily_status.units + new_row.units".
+ *
+ * MySQL gets INSERT ... SELECT ... ON DUPLICATE KEY UPDATE reading the derived table new_row,
+ * instead of the deprecated VALUES() function. H2, which the tests run on, cannot read a derived
+ * table there, so it gets the equivalent MERGE.
+ */
+@Component
+public class UpsertSql {
+    
+    public static final String NEW_ROW = "new_row";
+    
+    private final boolean mysql;
+    
+    @Autowired
+    public UpsertSql(DataSource dataSource) throws MetaDataAccessException {
+        this(!"H2".equals(JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName)));
+    }
+    
+    UpsertSql(boolean mysql) {
+        this.mysql = mysql;
+    }
+    
+    public String upsert(String table, List<String> keyColumns, List<String> columns, String select, String updates) {
+        if (mysql) {
+            return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") SELECT * FROM (" + select + ") AS "
+                    + NEW_ROW + " ON DUPLICATE KEY UPDATE " + updates;
+        }
+        return "MERGE INTO " + table + " USING (" + select + ") AS " + NEW_ROW + " ON "
+                + keyColumns.stream().map(key -> table + "." + key + " = " + NEW_ROW + "." + key).collect(Collectors.joining(" AND "))
+                + " WHEN MATCHED THEN UPDATE SET " + updates
+                + " WHEN NOT MATCHED THEN INSERT (" + String.join(", ", columns) + ") VALUES ("
+                + columns.stream().map(column -> NEW_ROW + "." + column).collect(Collectors.joining(", ")) + ")";
+    }
+}
@@ -1,7 +1,6 @@
 package com.skinvibe.service;
 
 import com.skinvibe.model.Address;
-import com.skinvibe.model.User;
 import com.skinvibe.repository.AddressRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -17,20 +16,20 @@ public class AddressService {
     @Autowired
     private AddressRepository addressRepository;
     
-    public List<Address> getAddressesByUser(User user) {
-        return addressRepository.findByUser(user);
+    public List<Address> getAddressesByUser(Long userId) {
+        return addressRepository.findByUserId(userId);
     }
     
-    public List<Address> getAddressesByUserAndType(User user, Address.AddressType addressType) {
-        return addressRepository.findByUserAndAddressType(user, addressType);
+    public List<Address> getAddressesByUserAndType(Long userId, Address.AddressType addressType) {
+        return addressRepository.findByUserIdAndAddressType(userId, addressType);
     }
     
-    public Optional<Address> getDefaultAddress(User user) {
-        return addressRepository.findByUserAndIsDefaultTrue(user);
+    public Optional<Address> getDefaultAddress(Long userId) {
+        return addressRepository.findByUserIdAndIsDefaultTrue(userId);
     }
     
-    public Optional<Address> getDefaultAddressByType(User user, Address.AddressType addressType) {
-        return addressRepository.findByUserAndIsDefaultTrueAndAddressType(user, addressType);
+    public Optional<Address> getDefaultAddressByType(Long userId, Address.AddressType addressType) {
+        return addressRepository.findByUserIdAndIsDefaultTrueAndAddressType(userId, addressType);
     }
     
     public Address saveAddress(Address address) {
@@ -60,8 +59,8 @@ public class AddressService {
     private void setAsDefaultAddress(Address newDefaultAddress) {
         // Find existing default address of the same type for the same user
         Optional<Address> existingDefault = addressRepository
-                .findByUserAndIsDefaultTrueAndAddressType(
-                        newDefaultAddress.getUser(), 
+                .findByUserIdAndIsDefaultTrueAndAddressType(
+                        newDefaultAddress.getUser().getId(), 
                         newDefaultAddress.getAddressType()
                 );
         
@@ -0,0 +1,173 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.Order;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bulk order status change and its progress. The change targets either an explicit set of
+ * order ids or every order in one status, optionally limited to a range of order dates; chunk
+ * counts are added as each chunk commits, so the admin page can poll them.
+ */
+public class BulkStatusJob {
+    
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+    
+    private final String id;
+    
+    private final List<Long> orderIds;
+    
+    private final Order.OrderStatus fromStatus;
+    
+    private final LocalDate fromDate;
+    
+    private final LocalDate toDate;
+    
+    private final Order.OrderStatus targetStatus;
+    
+    private final AtomicInteger chunks = new AtomicInteger();
+    
+    private final AtomicInteger processed = new AtomicInteger();
+    
+    private final AtomicInteger updated = new AtomicInteger();
+    
+    private final AtomicInteger unchanged = new AtomicInteger();
+    
+    private final AtomicInteger rejected = new AtomicInteger();
+    
+    private volatile State state = State.QUEUED;
+    
+    private volatile long total;
+    
+    private volatile String error;
+    
+    private volatile LocalDateTime startedAt;
+    
+    private volatile LocalDateTime finishedAt;
+    
+    private BulkStatusJob(String id, List<Long> orderIds, Order.OrderStatus fromStatus,
+                          LocalDate fromDate, LocalDate toDate, Order.OrderStatus targetStatus) {
+        this.id = id;
+        this.orderIds = orderIds;
+        this.fromStatus = fromStatus;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.targetStatus = targetStatus;
+    }
+    
+    public static BulkStatusJob forOrders(String id, List<Long> orderIds, Order.OrderStatus targetStatus) {
+        return new BulkStatusJob(id, List.copyOf(orderIds), null, null, null, targetStatus);
+    }
+    
+    public static BulkStatusJob forStatus(String id, Order.OrderStatus fromStatus, LocalDate fromDate,
+                                          LocalDate toDate, Order.OrderStatus targetStatus) {
+        return new BulkStatusJob(id, null, fromStatus, fromDate, toDate, targetStatus);
+    }
+    
+    void start(long total) {
+        this.total = total;
+        this.startedAt = LocalDateTime.now();
+        this.state = State.RUNNING;
+    }
+    
+    void chunkDone(int size, int updatedCount, int unchangedCount, int rejectedCount) {
+        processed.addAndGet(size);
+        updated.addAndGet(updatedCount);
+        unchanged.addAndGet(unchangedCount);
+        rejected.addAndGet(rejectedCount);
+        chunks.incrementAndGet();
+    }
+    
+    void complete() {
+        finishedAt = LocalDateTime.now();
+        state = State.COMPLETED;
+    }
+    
+    void fail(String message) {
+        error = message;
+        finishedAt = LocalDateTime.now();
+        state = State.FAILED;
+    }
+    
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+    
+    // Whole percent of the orders processed; a filter's total is counted at the start, so it is an estimate
+    public int getPercentDone() {
+        if (isFinished()) {
+            return 100;
+        }
+        return total == 0 ? 0 : (int) Math.min(99, processed.get() * 100L / total);
+    }
+    
+    // Getters
+    public String getId() {
+        return id;
+    }
+    
+    public List<Long> getOrderIds() {
+        return orderIds;
+    }
+    
+    public Order.OrderStatus getFromStatus() {
+        return fromStatus;
+    }
+    
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+    
+    public LocalDate getToDate() {
+        return toDate;
+    }
+    
+    public Order.OrderStatus getTargetStatus() {
+        return targetStatus;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public int getChunks() {
+        return chunks.get();
+    }
+    
+    public int getProcessed() {
+        return processed.get();
+    }
+    
+    public int getUpdated() {
+        return updated.get();
+    }
+    
+    public int getUnchanged() {
+        return unchanged.get();
+    }
+    
+    public int getRejected() {
+        return rejected.get();
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
@@ -0,0 +1,68 @@
+package com.skinvibe.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skinvibe.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs bulk order status changes in the background on bulkStatusExecutor, one job at a time so
+ * two jobs never contend for the same order rows. Recent jobs are kept for the progress page.
+ */
+@Service
+public class BulkStatusJobService {
+    
+    private static final Logger log = LoggerFactory.getLogger(BulkStatusJobService.class);
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private AsyncTaskExecutor bulkStatusExecutor;
+    
+    private final Cache<String, BulkStatusJob> jobs = Caffeine.newBuilder()
+            .maximumSize(100)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+    
+    public BulkStatusJob startForOrders(List<Long> orderIds, Order.OrderStatus targetStatus) {
+        if (orderIds.isEmpty()) {
+            throw new RuntimeException("No order ids given");
+        }
+        return submit(BulkStatusJob.forOrders(UUID.randomUUID().toString(), orderIds, targetStatus));
+    }
+    
+    public BulkStatusJob startForStatus(Order.OrderStatus fromStatus, LocalDate fromDate, LocalDate toDate,
+                                        Order.OrderStatus targetStatus) {
+        if (!fromStatus.canTransitionTo(targetStatus)) {
+            throw new RuntimeException("Orders cannot move from " + fromStatus + " to " + targetStatus);
+        }
+        return submit(BulkStatusJob.forStatus(UUID.randomUUID().toString(), fromStatus, fromDate, toDate, targetStatus));
+    }
+    
+    public BulkStatusJob getJob(String id) {
+        return jobs.getIfPresent(id);
+    }
+    
+    private BulkStatusJob submit(BulkStatusJob job) {
+        jobs.put(job.getId(), job);
+        bulkStatusExecutor.execute(() -> {
+            try {
+                orderService.bulkUpdateOrderStatus(job);
+            } catch (Exception e) {
+                job.fail(e.getMessage());
+                log.error("Bulk order status job {} failed", job.getId(), e);
+            }
+        });
+        return job;
+    }
+}
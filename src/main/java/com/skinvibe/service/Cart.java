@@ -0,0 +1,50 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.CartItem;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A user's cart items together with their totals, priced from the products loaded with the items.
+ */
+public class Cart {
+    
+    private final List<CartItem> items;
+    
+    private final BigDecimal total;
+    
+    private final int unitCount;
+    
+    public Cart(List<CartItem> items) {
+        this.items = items;
+        BigDecimal total = BigDecimal.ZERO;
+        int unitCount = 0;
+        for (CartItem item : items) {
+            total = total.add(item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+            unitCount += item.getQuantity();
+        }
+        this.total = total;
+        this.unitCount = unitCount;
+    }
+    
+    public List<CartItem> getItems() {
+        return items;
+    }
+    
+    public BigDecimal getTotal() {
+        return total;
+    }
+    
+    public int getLineCount() {
+        return items.size();
+    }
+    
+    public int getUnitCount() {
+        return unitCount;
+    }
+    
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -2,84 +2,75 @@ package com.skinvibe.service;
 
 import com.skinvibe.model.CartItem;
 import com.skinvibe.model.Product;
-import com.skinvibe.model.User;
-import com.skinvibe.repository.CartItemRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 @Transactional
 public class CartService {
     
     @Autowired
-    private CartItemRepository cartItemRepository;
+    private CartStore cartStore;
     
     @Autowired
     private ProductService productService;
     
-    public List<CartItem> getCartItems(User user) {
-        return cartItemRepository.findByUser(user);
+    @Autowired
+    private StockReservationService stockReservationService;
+    
+    public List<CartItem> getCartItems(Long userId) {
+        return cartStore.getCart(userId).getItems();
+    }
+    
+    /**
+     * Loads the cart items with their products and totals them from that single query.
+     */
+    public Cart getCart(Long userId) {
+        return cartStore.getCart(userId);
     }
     
-    public void addToCart(User user, Long productId, Integer quantity) {
+    public void addToCart(Long userId, Long productId, Integer quantity) {
         Product product = productService.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         
-        if (product.getStockQuantity() < quantity) {
+        if (stockReservationService.getAvailableToSell(product, userId) < quantity) {
             throw new RuntimeException("Insufficient stock");
         }
         
-        Optional<CartItem> existingItem = cartItemRepository.findByUserAndProductId(user, productId);
-        
-        if (existingItem.isPresent()) {
-            CartItem cartItem = existingItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-            cartItemRepository.save(cartItem);
-        } else {
-            CartItem cartItem = new CartItem(user, product, quantity);
-            cartItemRepository.save(cartItem);
-        }
+        cartStore.add(userId, product, quantity);
     }
     
-    public void updateCartItemQuantity(User user, Long productId, Integer quantity) {
-        CartItem cartItem = cartItemRepository.findByUserAndProductId(user, productId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
-        
+    public void updateCartItemQuantity(Long userId, Long productId, Integer quantity) {
         if (quantity <= 0) {
-            cartItemRepository.delete(cartItem);
-        } else {
-            Product product = cartItem.getProduct();
-            if (product.getStockQuantity() < quantity) {
-                throw new RuntimeException("Insufficient stock");
-            }
-            cartItem.setQuantity(quantity);
-            cartItemRepository.save(cartItem);
+            cartStore.remove(userId, productId);
+            return;
         }
+        
+        Product product = productService.findById(productId)
+                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+        if (stockReservationService.getAvailableToSell(product, userId) < quantity) {
+            throw new RuntimeException("Insufficient stock");
+        }
+        cartStore.setQuantity(userId, product, quantity);
     }
     
-    public void removeFromCart(User user, Long productId) {
-        CartItem cartItem = cartItemRepository.findByUserAndProductId(user, productId)
-                .orElseThrow(() -> new RuntimeException("Cart item not found"));
-        cartItemRepository.delete(cartItem);
+    public void removeFromCart(Long userId, Long productId) {
+        cartStore.remove(userId, productId);
     }
     
-    public void clearCart(User user) {
-        cartItemRepository.deleteByUser(user);
+    public void clearCart(Long userId) {
+        cartStore.clear(userId);
     }
     
-    public int getCartItemCount(User user) {
-        return cartItemRepository.countByUser(user);
+    public int getCartItemCount(Long userId) {
+        return cartStore.getLineCount(userId);
     }
     
-    public BigDecimal getCartTotal(User user) {
-        List<CartItem> cartItems = getCartItems(user);
-        return cartItems.stream()
-                .map(item -> item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public BigDecimal getCartTotal(Long userId) {
+        return cartStore.getTotal(userId);
     }
 }
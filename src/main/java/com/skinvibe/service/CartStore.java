@@ -0,0 +1,29 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * Where cart contents live. CartService validates requests against the catalog and delegates
+ * storage here; the implementation is chosen with the skinvibe.cart.store property.
+ */
+public interface CartStore {
+    
+    Cart getCart(Long userId);
+    
+    void add(Long userId, Product product, int quantity);
+    
+    /**
+     * Replaces the quantity of a line already in the cart.
+     */
+    void setQuantity(Long userId, Product product, int quantity);
+    
+    void remove(Long userId, Long productId);
+    
+    void clear(Long userId);
+    
+    int getLineCount(Long userId);
+    
+    BigDecimal getTotal(Long userId);
+}
@@ -0,0 +1,61 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.CatalogStamp;
+import com.skinvibe.repository.CatalogStampRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Moves the shared {@link CatalogStamp} row on every catalog write, so output built from products
+ * and categories can be cached under the revision it was read at, on every node, and is never
+ * served once the catalog has changed. The HTTP validators are built from the same row.
+ */
+@Component
+public class CatalogVersion {
+    
+    private static final String STAMP_ATTRIBUTE = CatalogVersion.class.getName() + ".stamp";
+    
+    @Autowired
+    private CatalogStampRepository catalogStampRepository;
+    
+    // Joins the writer's transaction, so the revision moves exactly when the catalog rows do
+    public void changed() {
+        LocalDateTime now = LocalDateTime.now();
+        if (catalogStampRepository.bumpCatalog(now) == 0) {
+            catalogStampRepository.save(new CatalogStamp(1L, 1L, now));
+        }
+    }
+    
+    // Cached fragments are keyed on the stock they show, so a sale only moves the validators
+    public void stockChanged() {
+        LocalDateTime now = LocalDateTime.now();
+        if (catalogStampRepository.bump(now) == 0) {
+            catalogStampRepository.save(new CatalogStamp(1L, 0L, now));
+        }
+    }
+    
+    /**
+     * The stamp, read once per request: the validators and every fragment of a page use the revision
+     * read before any of the page's rows, so output is never cached under a revision newer than it.
+     */
+    public CatalogStamp stamp() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return read();
+        }
+        CatalogStamp stamp = (CatalogStamp) request.getAttribute(STAMP_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (stamp == null) {
+            stamp = read();
+            request.setAttribute(STAMP_ATTRIBUTE, stamp, RequestAttributes.SCOPE_REQUEST);
+        }
+        return stamp;
+    }
+    
+    private CatalogStamp read() {
+        return catalogStampRepository.findById(CatalogStamp.ID).orElseGet(CatalogStamp::new);
+    }
+}
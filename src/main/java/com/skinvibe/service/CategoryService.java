@@ -1,9 +1,14 @@
 package com.skinvibe.service;
 
+import com.skinvibe.config.CacheConfig;
 import com.skinvibe.model.Category;
 import com.skinvibe.repository.CategoryRepository;
+import com.skinvibe.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,10 +19,24 @@ public class CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
     
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @Autowired
+    private DashboardCounters dashboardCounters;
+    
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Cacheable(CacheConfig.ACTIVE_CATEGORIES)
     public List<Category> getAllActiveCategories() {
         return categoryRepository.findByIsActiveTrue();
     }
     
+    @Cacheable(CacheConfig.ALL_CATEGORIES)
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
@@ -26,16 +45,29 @@ public class CategoryService {
         return categoryRepository.findById(id);
     }
     
+    @CacheEvict(cacheNames = {CacheConfig.ACTIVE_CATEGORIES, CacheConfig.ALL_CATEGORIES}, allEntries = true)
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        catalogVersion.changed();
+        return savedCategory;
     }
     
+    @CacheEvict(cacheNames = {CacheConfig.ACTIVE_CATEGORIES, CacheConfig.ALL_CATEGORIES}, allEntries = true)
     public Category updateCategory(Category category) {
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        catalogVersion.changed();
+        return savedCategory;
     }
     
+    // Deleting a category cascades to its products, which leave the search index with it
+    @CacheEvict(cacheNames = {CacheConfig.ACTIVE_CATEGORIES, CacheConfig.ALL_CATEGORIES, CacheConfig.FEATURED_PRODUCTS}, allEntries = true)
+    @Transactional
     public void deleteCategory(Long id) {
+        List<Long> productIds = productRepository.findIdsByCategoryId(id);
         categoryRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> productIds.forEach(productSearchIndex::remove));
+        dashboardCounters.addProducts(-productIds.size());
+        catalogVersion.changed();
     }
     
     public List<Category> findByNameContaining(String name) {
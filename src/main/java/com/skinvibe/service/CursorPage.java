@@ -0,0 +1,59 @@
+package com.skinvibe.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. Unlike {@link org.springframework.data.domain.Page}
+ * it carries no total count, only the token for the following page.
+ */
+public class CursorPage<T> {
+    
+    public static final int MAX_SIZE = 100;
+    
+    private final List<T> content;
+    
+    private final String nextCursor;
+    
+    private CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Rows are fetched with one extra element so the presence of a next page is known without counting
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPage<>(content, cursorOf.apply(content.get(size - 1)).encode());
+    }
+    
+    // Request parameters are clamped rather than rejected, so ?size=0 or ?size=100000 still renders a page
+    public static int boundedSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+    
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+    
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+    
+    public int getNumberOfElements() {
+        return content.size();
+    }
+}
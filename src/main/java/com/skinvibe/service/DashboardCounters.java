@@ -0,0 +1,107 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.Order;
+import com.skinvibe.repository.OrderRepository;
+import com.skinvibe.repository.ProductRepository;
+import com.skinvibe.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admin dashboard totals kept in memory so the dashboard renders without aggregate queries.
+ * Write paths adjust them once their transaction commits; a periodic reconcile recounts from
+ * the database to absorb drift from bulk loads, restarts and writes made on other nodes.
+ */
+@Component
+public class DashboardCounters {
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    private final AtomicLong totalProducts = new AtomicLong();
+    
+    private final AtomicLong totalUsers = new AtomicLong();
+    
+    private final Map<Order.OrderStatus, AtomicLong> ordersByStatus = new EnumMap<>(Order.OrderStatus.class);
+    
+    public DashboardCounters() {
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            ordersByStatus.put(status, new AtomicLong());
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${skinvibe.dashboard.reconcile-interval:300000}",
+            initialDelayString = "${skinvibe.dashboard.reconcile-interval:300000}")
+    public void reconcile() {
+        Map<Order.OrderStatus, Long> counts = new EnumMap<>(Order.OrderStatus.class);
+        for (Object[] row : orderRepository.countGroupByOrderStatus()) {
+            counts.put((Order.OrderStatus) row[0], (Long) row[1]);
+        }
+        for (Map.Entry<Order.OrderStatus, AtomicLong> entry : ordersByStatus.entrySet()) {
+            entry.getValue().set(counts.getOrDefault(entry.getKey(), 0L));
+        }
+        totalProducts.set(productRepository.count());
+        totalUsers.set(userRepository.count());
+    }
+    
+    public long getTotalProducts() {
+        return totalProducts.get();
+    }
+    
+    public long getTotalUsers() {
+        return totalUsers.get();
+    }
+    
+    public long getTotalOrders() {
+        long total = 0;
+        for (AtomicLong count : ordersByStatus.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+    
+    public long getOrderCount(Order.OrderStatus status) {
+        return ordersByStatus.get(status).get();
+    }
+    
+    public void addProducts(int delta) {
+        TransactionHooks.afterCommit(() -> totalProducts.addAndGet(delta));
+    }
+    
+    public void addUsers(int delta) {
+        TransactionHooks.afterCommit(() -> totalUsers.addAndGet(delta));
+    }
+    
+    public void addPlacedOrders(int count) {
+        TransactionHooks.afterCommit(() -> ordersByStatus.get(Order.OrderStatus.PENDING).addAndGet(count));
+    }
+    
+    public void orderStatusChanged(Order.OrderStatus from, Order.OrderStatus to) {
+        orderStatusChanged(from, to, 1);
+    }
+    
+    public void orderStatusChanged(Order.OrderStatus from, Order.OrderStatus to, int count) {
+        if (from == to || count == 0) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            ordersByStatus.get(from).addAndGet(-count);
+            ordersByStatus.get(to).addAndGet(count);
+        });
+    }
+}
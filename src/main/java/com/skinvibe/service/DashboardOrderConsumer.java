@@ -0,0 +1,28 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Counts placed orders on the dashboard. The counters move only when the delivery commits, and a
+ * committed delivery is not repeated, so another consumer's failure cannot count an order twice.
+ */
+@Component
+public class DashboardOrderConsumer implements OutboxConsumer {
+    
+    @Autowired
+    private DashboardCounters dashboardCounters;
+    
+    @Override
+    public String getEventType() {
+        return OrderPlacedEvent.TYPE;
+    }
+    
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        dashboardCounters.addPlacedOrders(events.size());
+    }
+}
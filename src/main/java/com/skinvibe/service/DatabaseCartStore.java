@@ -0,0 +1,101 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.CartItem;
+import com.skinvibe.model.CartTotals;
+import com.skinvibe.model.Product;
+import com.skinvibe.repository.CartItemRepository;
+import com.skinvibe.repository.CartTotalsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+/**
+ * Cart store writing every change straight to cart_items, with totals kept in cart_totals.
+ */
+@Component
+@ConditionalOnProperty(name = "skinvibe.cart.store", havingValue = "database", matchIfMissing = true)
+public class DatabaseCartStore implements CartStore {
+    
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    
+    @Autowired
+    private CartTotalsRepository cartTotalsRepository;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Override
+    public Cart getCart(Long userId) {
+        return new Cart(cartItemRepository.findByUserId(userId));
+    }
+    
+    @Override
+    public void add(Long userId, Product product, int quantity) {
+        Optional<CartItem> existingItem = cartItemRepository.findByUserIdAndProductId(userId, product.getId());
+        
+        if (existingItem.isPresent()) {
+            CartItem cartItem = existingItem.get();
+            cartItem.setQuantity(cartItem.getQuantity() + quantity);
+            cartItemRepository.save(cartItem);
+            updateTotals(userId, product, 0, quantity);
+        } else {
+            CartItem cartItem = new CartItem(userService.getReference(userId), product, quantity);
+            cartItemRepository.save(cartItem);
+            updateTotals(userId, product, 1, quantity);
+        }
+    }
+    
+    @Override
+    public void setQuantity(Long userId, Product product, int quantity) {
+        CartItem cartItem = cartItemRepository.findByUserIdAndProductId(userId, product.getId())
+                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+        int previousQuantity = cartItem.getQuantity();
+        cartItem.setQuantity(quantity);
+        cartItemRepository.save(cartItem);
+        updateTotals(userId, product, 0, quantity - previousQuantity);
+    }
+    
+    @Override
+    public void remove(Long userId, Long productId) {
+        CartItem cartItem = cartItemRepository.findByUserIdAndProductId(userId, productId)
+                .orElseThrow(() -> new RuntimeException("Cart item not found"));
+        cartItemRepository.delete(cartItem);
+        updateTotals(userId, cartItem.getProduct(), -1, -cartItem.getQuantity());
+    }
+    
+    @Override
+    public void clear(Long userId) {
+        cartItemRepository.deleteByUserId(userId);
+        cartTotalsRepository.reset(userId);
+    }
+    
+    @Override
+    public int getLineCount(Long userId) {
+        return getTotals(userId).getLineCount();
+    }
+    
+    @Override
+    public BigDecimal getTotal(Long userId) {
+        return getTotals(userId).getTotalAmount();
+    }
+    
+    private CartTotals getTotals(Long userId) {
+        return cartTotalsRepository.findById(userId).orElseGet(() -> {
+            // Carts filled before totals were kept, or whose totals were invalidated
+            cartTotalsRepository.rebuild(userId);
+            return cartTotalsRepository.findById(userId).orElseThrow();
+        });
+    }
+    
+    private void updateTotals(Long userId, Product product, int lines, int units) {
+        BigDecimal amount = product.getPrice().multiply(BigDecimal.valueOf(units));
+        if (cartTotalsRepository.applyDelta(userId, amount, lines, units) == 0) {
+            cartItemRepository.flush();
+            cartTotalsRepository.rebuild(userId);
+        }
+    }
+}
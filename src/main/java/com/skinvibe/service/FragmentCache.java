@@ -0,0 +1,105 @@
+package com.skinvibe.service;
+
+import com.skinvibe.config.CacheConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.ServletContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Rendered HTML of catalog fragments, keyed by template, fragment, catalog revision and whatever
+ * else the output depends on. A hit skips both the rendering and loading the fragment's model;
+ * a catalog write on any node moves the revision in the database, so earlier output is never
+ * served again.
+ */
+@Service
+public class FragmentCache {
+    
+    public static final String CATALOG = "fragments/catalog";
+    
+    @Autowired
+    private SpringTemplateEngine templateEngine;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Autowired
+    private ServletContext servletContext;
+    
+    @Value("${skinvibe.fragment-cache.enabled:true}")
+    private boolean enabled;
+    
+    private JakartaServletWebApplication webApplication;
+    
+    @PostConstruct
+    void init() {
+        webApplication = JakartaServletWebApplication.buildApplication(servletContext);
+    }
+    
+    /**
+     * Renders one fragment; the model is only built on a miss. The key must identify everything
+     * the output depends on other than the catalog, and may be null when there is nothing.
+     */
+    public String render(String template, String fragment, Object key, Supplier<Map<String, Object>> model) {
+        if (!enabled) {
+            return process(template, fragment, model.get());
+        }
+        // Read before the model is loaded, so output built from rows older than the revision is never stored under it
+        FragmentKey cacheKey = new FragmentKey(template, fragment, catalogVersion.stamp().getCatalogRevision(), key);
+        Cache cache = cacheManager.getCache(CacheConfig.FRAGMENTS);
+        String html = cache.get(cacheKey, String.class);
+        // Not rendered inside the cache's loader, which holds a monitor while the model is read from the
+        // database; concurrent misses render the same fragment more than once instead
+        if (html == null) {
+            html = process(template, fragment, model.get());
+            cache.put(cacheKey, html);
+        }
+        return html;
+    }
+    
+    /**
+     * Renders a fragment once per item, the item bound to {@code name}; each item is cached on its
+     * own value plus the shared variables.
+     */
+    public List<String> renderEach(String template, String fragment, String name, List<?> items,
+                                   Map<String, Object> shared) {
+        List<String> html = new ArrayList<>(items.size());
+        for (Object item : items) {
+            html.add(render(template, fragment, List.of(item, shared), () -> {
+                Map<String, Object> variables = new HashMap<>(shared);
+                variables.put(name, item);
+                return variables;
+            }));
+        }
+        return html;
+    }
+    
+    private String process(String template, String fragment, Map<String, Object> variables) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        WebContext context = new WebContext(webApplication.buildExchange(attributes.getRequest(), attributes.getResponse()),
+                LocaleContextHolder.getLocale(), variables);
+        return templateEngine.process(template, Set.of(fragment), context);
+    }
+    
+    private record FragmentKey(String template, String fragment, long catalogRevision, Object key) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.skinvibe.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.skinvibe.model.Order;
+import com.skinvibe.repository.IdempotencyKeyRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Places an order at most once per checkout key. Repeats on this node wait for the first
+ * submission and get its order without opening a transaction; the idempotency_keys row that
+ * OrderService writes with the order covers other nodes, restarts and older keys.
+ */
+@Service
+public class IdempotencyService {
+    
+    private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9-]{1,64}");
+    
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Value("${skinvibe.idempotency.ttl:24h}")
+    private Duration ttl;
+    
+    @Value("${skinvibe.idempotency.memory-ttl:10m}")
+    private Duration memoryTtl;
+    
+    @Value("${skinvibe.idempotency.memory-max-keys:10000}")
+    private long memoryMaxKeys;
+    
+    // user id + key -> id of the order, completed once the first submission has committed
+    private Cache<String, CompletableFuture<Long>> requests;
+    
+    @PostConstruct
+    public void init() {
+        requests = Caffeine.newBuilder()
+                .maximumSize(memoryMaxKeys)
+                .expireAfterWrite(memoryTtl)
+                .build();
+    }
+    
+    public static boolean isValidKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+    
+    /**
+     * Runs the checkout unless the key was already used by this user, in which case the order
+     * placed by the earlier submission is returned. Requests without a usable key always run.
+     */
+    public Order placeOnce(Long userId, String key, Supplier<Order> checkout) {
+        if (!isValidKey(key)) {
+            return checkout.get();
+        }
+        
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        CompletableFuture<Long> earlier = requests.asMap().putIfAbsent(userId + ":" + key, result);
+        if (earlier != null) {
+            return findOrder(awaitOrderId(earlier));
+        }
+        
+        try {
+            Optional<Long> recordedOrderId = idempotencyKeyRepository.findOrderId(key, userId);
+            Order order = recordedOrderId.isPresent() ? findOrder(recordedOrderId.get()) : checkout.get();
+            result.complete(order.getId());
+            return order;
+        } catch (DataIntegrityViolationException e) {
+            // The same key was committed concurrently, e.g. by another node
+            Long orderId = idempotencyKeyRepository.findOrderId(key, userId).orElse(null);
+            if (orderId == null) {
+                fail(userId, key, result, e);
+                throw e;
+            }
+            result.complete(orderId);
+            return findOrder(orderId);
+        } catch (RuntimeException e) {
+            fail(userId, key, result, e);
+            throw e;
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${skinvibe.idempotency.cleanup-interval:3600000}")
+    @Transactional
+    public void deleteExpiredKeys() {
+        idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    }
+    
+    // A failed checkout frees its key so a retry runs again; submissions already waiting get the same error
+    private void fail(Long userId, String key, CompletableFuture<Long> result, RuntimeException e) {
+        requests.asMap().remove(userId + ":" + key, result);
+        result.completeExceptionally(e);
+    }
+    
+    private Long awaitOrderId(CompletableFuture<Long> earlier) {
+        try {
+            return earlier.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private Order findOrder(Long orderId) {
+        return orderService.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.skinvibe.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skinvibe.model.Order;
+import com.skinvibe.repository.OrderExportRepository;
+import com.skinvibe.repository.OrderExportRepository.OrderLine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Writes orders straight from the export cursor to the response, a row at a time. Nothing is
+ * collected in between, so memory stays flat however many orders match.
+ */
+@Service
+public class OrderExportService {
+    
+    private static final String CSV_HEADER = "order_number,created_at,order_status,payment_status,payment_method,"
+            + "username,email,total_amount,shipping_cost,tax_amount,discount_amount,"
+            + "product_id,product_name,quantity,unit_price,item_total\r\n";
+    
+    @Autowired
+    private OrderExportRepository orderExportRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * One CSV row per order item, order columns repeated on each of its rows.
+     */
+    public void writeCsv(LocalDate from, LocalDate to, Order.OrderStatus status, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        orderExportRepository.streamOrderLines(from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null, status, line -> {
+                    try {
+                        writer.write(csv(line.orderNumber()) + ',' + csv(line.createdAt()) + ',' + csv(line.orderStatus()) + ','
+                                + csv(line.paymentStatus()) + ',' + csv(line.paymentMethod()) + ',' + csv(line.username()) + ','
+                                + csv(line.email()) + ',' + csv(line.totalAmount()) + ',' + csv(line.shippingCost()) + ','
+                                + csv(line.taxAmount()) + ',' + csv(line.discountAmount()) + ',' + csv(line.productId()) + ','
+                                + csv(line.productName()) + ',' + csv(line.quantity()) + ',' + csv(line.unitPrice()) + ','
+                                + csv(line.itemTotal()) + "\r\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        writer.flush();
+    }
+    
+    /**
+     * A JSON array of orders, each with its items nested. Lines of one order arrive together, so
+     * an order is closed as soon as the next one starts.
+     */
+    public void writeJson(LocalDate from, LocalDate to, Order.OrderStatus status, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.writeStartArray();
+        Long[] currentOrderId = new Long[1];
+        orderExportRepository.streamOrderLines(from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null, status, line -> {
+                    try {
+                        if (!Objects.equals(currentOrderId[0], line.orderId())) {
+                            if (currentOrderId[0] != null) {
+                                json.writeEndArray();
+                                json.writeEndObject();
+                            }
+                            currentOrderId[0] = line.orderId();
+                            writeOrderStart(json, line);
+                        }
+                        if (line.productId() != null) {
+                            json.writeStartObject();
+                            json.writeNumberField("productId", line.productId());
+                            json.writeStringField("productName", line.productName());
+                            json.writeNumberField("quantity", line.quantity());
+                            writeDecimal(json, "unitPrice", line.unitPrice());
+                            writeDecimal(json, "itemTotal", line.itemTotal());
+                            json.writeEndObject();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        if (currentOrderId[0] != null) {
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.flush();
+    }
+    
+    private static void writeOrderStart(JsonGenerator json, OrderLine line) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("orderNumber", line.orderNumber());
+        json.writeStringField("createdAt", line.createdAt() != null ? line.createdAt().toString() : null);
+        json.writeStringField("orderStatus", line.orderStatus());
+        json.writeStringField("paymentStatus", line.paymentStatus());
+        json.writeStringField("paymentMethod", line.paymentMethod());
+        json.writeStringField("username", line.username());
+        json.writeStringField("email", line.email());
+        writeDecimal(json, "totalAmount", line.totalAmount());
+        writeDecimal(json, "shippingCost", line.shippingCost());
+        writeDecimal(json, "taxAmount", line.taxAmount());
+        writeDecimal(json, "discountAmount", line.discountAmount());
+        json.writeArrayFieldStart("items");
+    }
+    
+    private static void writeDecimal(JsonGenerator json, String name, BigDecimal value) throws IOException {
+        if (value == null) {
+            json.writeNullField(name);
+        } else {
+            json.writeNumberField(name, value);
+        }
+    }
+    
+    // Quotes a value only when it holds a delimiter, quote or line break. Text that a spreadsheet
+    // would read as a formula is prefixed with an apostrophe; numbers are written as they are
+    private static String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,9 @@
+package com.skinvibe.service;
+
+/**
+ * Source of the customer-facing order numbers stored in orders.order_number.
+ */
+public interface OrderNumberGenerator {
+    
+    String nextOrderNumber();
+}
@@ -0,0 +1,13 @@
+package com.skinvibe.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Payload of the outbox event written when an order is placed.
+ */
+public record OrderPlacedEvent(Long orderId, Long userId, BigDecimal totalAmount,
+                               Map<Long, Integer> quantitiesByProductId) {
+    
+    public static final String TYPE = "ORDER_PLACED";
+}
@@ -1,18 +1,22 @@
 package com.skinvibe.service;
 
 import com.skinvibe.model.*;
+import com.skinvibe.repository.IdempotencyKeyRepository;
 import com.skinvibe.repository.OrderRepository;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 
 @Service
 @Transactional
@@ -27,12 +31,56 @@ public class OrderService {
     @Autowired
     private ProductService productService;
     
-    public List<Order> getOrdersByUser(User user) {
-        return orderRepository.findByUser(user);
+    @Autowired
+    private ProductLockStripes productLockStripes;
+    
+    @Autowired
+    private StockReservationService stockReservationService;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private OrderNumberGenerator orderNumberGenerator;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    
+    @Autowired
+    private DashboardCounters dashboardCounters;
+    
+    @Autowired
+    private SalesRollupService salesRollupService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${skinvibe.orders.bulk-chunk-size:500}")
+    private int bulkChunkSize;
+    
+    public List<Order> getOrdersByUser(Long userId) {
+        return orderRepository.findByUserId(userId);
     }
     
-    public Page<Order> getOrdersByUser(User user, Pageable pageable) {
-        return orderRepository.findByUser(user, pageable);
+    public Page<Order> getOrdersByUser(Long userId, Pageable pageable) {
+        Page<Order> orders = orderRepository.findByUserId(userId, pageable);
+        initializeOrderItems(orders, true);
+        return orders;
+    }
+    
+    public CursorPage<Order> getOrdersByUser(Long userId, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<Order> rows = after == null
+                ? orderRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, limit)
+                : orderRepository.findByUserIdBefore(userId, after.createdAt(), after.id(), limit);
+        
+        CursorPage<Order> orders = CursorPage.of(rows, size, order -> new KeysetCursor(order.getCreatedAt(), order.getId()));
+        initializeOrderItems(orders.getContent(), true);
+        return orders;
     }
     
     public Optional<Order> findById(Long id) {
@@ -43,59 +91,98 @@ public class OrderService {
         return orderRepository.findByOrderNumber(orderNumber);
     }
     
-    public Order createOrder(User user, Address shippingAddress, Address billingAddress, 
+    public Order createOrder(Long userId, Address shippingAddress, Address billingAddress, 
                            Order.PaymentMethod paymentMethod, String notes) {
+        return createOrder(userId, shippingAddress, billingAddress, paymentMethod, notes, null);
+    }
+    
+    /**
+     * Places an order from the user's cart. A non-null idempotency key is recorded with the order;
+     * a key that is already taken fails the checkout before any stock is touched.
+     */
+    public Order createOrder(Long userId, Address shippingAddress, Address billingAddress, 
+                           Order.PaymentMethod paymentMethod, String notes, String idempotencyKey) {
         
-        List<CartItem> cartItems = cartService.getCartItems(user);
-        if (cartItems.isEmpty()) {
+        Cart cart = cartService.getCart(userId);
+        if (cart.isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
+        List<CartItem> cartItems = cart.getItems();
         
-        // Generate unique order number
-        String orderNumber = "SKV-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String orderNumber = orderNumberGenerator.nextOrderNumber();
         
-        // Calculate total amount
-        BigDecimal totalAmount = cartService.getCartTotal(user);
+        // Total from the same product prices the order items are created with
+        BigDecimal totalAmount = cart.getTotal();
         
         // Create order
-        Order order = new Order(orderNumber, user, totalAmount);
+        Order order = new Order(orderNumber, userService.getReference(userId), totalAmount);
         order.setShippingAddress(shippingAddress);
         order.setBillingAddress(billingAddress);
         order.setPaymentMethod(paymentMethod);
         order.setNotes(notes);
         
-        // Save order first to get ID
+        // Persist order; its id comes from the pooled generator without an INSERT round-trip
         order = orderRepository.save(order);
         
-        // Create order items and update stock
+        if (idempotencyKey != null) {
+            idempotencyKeyRepository.insert(idempotencyKey, userId, order.getId());
+        }
+        
+        // Serialize checkouts of the same products until this transaction completes
+        Map<Long, Integer> quantitiesByProductId = new TreeMap<>();
+        for (CartItem cartItem : cartItems) {
+            quantitiesByProductId.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
+        }
+        productLockStripes.lockUntilCompletion(quantitiesByProductId.keySet());
+        
+        // Conditional decrements run as one batch in product id order to avoid deadlocks;
+        // any product whose stock ran out concurrently or is held by other checkouts fails the
+        // checkout instead of overselling
+        List<Long> insufficientStock = productService.decrementStock(quantitiesByProductId, userId);
+        if (!insufficientStock.isEmpty()) {
+            Product product = cartItems.stream()
+                    .map(CartItem::getProduct)
+                    .filter(p -> p.getId().equals(insufficientStock.get(0)))
+                    .findFirst()
+                    .orElseThrow();
+            throw new RuntimeException("Insufficient stock for product: " + product.getName());
+        }
+        
+        // The buyer's holds are now part of the decrement
+        stockReservationService.release(userId);
+        
+        // Create order items
         for (CartItem cartItem : cartItems) {
             Product product = cartItem.getProduct();
-            
-            // Check stock availability
-            if (product.getStockQuantity() < cartItem.getQuantity()) {
-                throw new RuntimeException("Insufficient stock for product: " + product.getName());
-            }
-            
-            // Create order item
             OrderItem orderItem = new OrderItem(order, product, cartItem.getQuantity(), product.getPrice());
             order.getOrderItems().add(orderItem);
-            
-            // Update product stock
-            product.setStockQuantity(product.getStockQuantity() - cartItem.getQuantity());
-            productService.updateProduct(product);
         }
         
         // Clear cart
-        cartService.clearCart(user);
+        cartService.clearCart(userId);
+        
+        // Follow-up work runs after commit, off the request thread
+        outboxService.publish(OrderPlacedEvent.TYPE, order.getId(),
+                new OrderPlacedEvent(order.getId(), userId, totalAmount, quantitiesByProductId));
         
         // Save order with items
         return orderRepository.save(order);
     }
     
     public Order updateOrderStatus(Long orderId, Order.OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findByIdForUpdate(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
         
+        // Same rules as the bulk change: a repeat is a no-op and a move the workflow forbids is refused
+        if (order.getOrderStatus() == status) {
+            return order;
+        }
+        if (!order.getOrderStatus().canTransitionTo(status)) {
+            throw new RuntimeException("An order that is " + order.getOrderStatus() + " cannot become " + status);
+        }
+        
+        dashboardCounters.orderStatusChanged(order.getOrderStatus(), status);
+        salesRollupService.orderStatusChanged(List.of(orderId), order.getOrderStatus(), status);
         order.setOrderStatus(status);
         
         if (status == Order.OrderStatus.SHIPPED) {
@@ -107,6 +194,72 @@ public class OrderService {
         return orderRepository.save(order);
     }
     
+    /**
+     * Applies a bulk status change in chunks of set-based UPDATEs, each chunk in its own
+     * transaction. Orders already in the target status, or whose status cannot move to it, are
+     * counted and left alone; shipping and delivery dates are stamped as in updateOrderStatus.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void bulkUpdateOrderStatus(BulkStatusJob job) {
+        Order.OrderStatus target = job.getTargetStatus();
+        if (job.getOrderIds() != null) {
+            List<Long> orderIds = job.getOrderIds().stream().distinct().sorted().toList();
+            job.start(orderIds.size());
+            for (int from = 0; from < orderIds.size(); from += bulkChunkSize) {
+                applyStatusChunk(job, orderIds.subList(from, Math.min(orderIds.size(), from + bulkChunkSize)), target);
+            }
+        } else {
+            LocalDateTime fromDate = job.getFromDate() != null ? job.getFromDate().atStartOfDay() : null;
+            LocalDateTime toDate = job.getToDate() != null ? job.getToDate().plusDays(1).atStartOfDay() : null;
+            job.start(orderRepository.countByStatus(job.getFromStatus(), fromDate, toDate));
+            
+            // Seeks on id, so orders already moved by earlier chunks are never scanned again
+            long afterId = 0;
+            List<Long> chunk;
+            while (!(chunk = orderRepository.findIdsByStatus(job.getFromStatus(), fromDate, toDate, afterId,
+                    PageRequest.ofSize(bulkChunkSize))).isEmpty()) {
+                applyStatusChunk(job, chunk, target);
+                afterId = chunk.get(chunk.size() - 1);
+            }
+        }
+        job.complete();
+    }
+    
+    private void applyStatusChunk(BulkStatusJob job, List<Long> orderIds, Order.OrderStatus target) {
+        int[] counts = transactionTemplate.execute(status -> {
+            Map<Order.OrderStatus, List<Long>> idsByStatus = new EnumMap<>(Order.OrderStatus.class);
+            for (Object[] row : orderRepository.lockStatuses(orderIds)) {
+                idsByStatus.computeIfAbsent(Order.OrderStatus.valueOf((String) row[1]), s -> new ArrayList<>())
+                        .add(((Number) row[0]).longValue());
+            }
+            
+            LocalDateTime now = LocalDateTime.now();
+            int updated = 0;
+            int unchanged = 0;
+            for (Map.Entry<Order.OrderStatus, List<Long>> entry : idsByStatus.entrySet()) {
+                Order.OrderStatus from = entry.getKey();
+                List<Long> ids = entry.getValue();
+                if (from == target) {
+                    unchanged += ids.size();
+                } else if (from.canTransitionTo(target)) {
+                    dashboardCounters.orderStatusChanged(from, target, ids.size());
+                    salesRollupService.orderStatusChanged(ids, from, target);
+                    if (target == Order.OrderStatus.SHIPPED) {
+                        orderRepository.updateStatusShipped(ids, target, now);
+                    } else if (target == Order.OrderStatus.DELIVERED) {
+                        orderRepository.updateStatusDelivered(ids, target, now);
+                    } else {
+                        orderRepository.updateStatus(ids, target, now);
+                    }
+                    updated += ids.size();
+                }
+            }
+            // Orders in a status that cannot move to the target, and ids with no order, are rejected
+            return new int[]{updated, unchanged, orderIds.size() - updated - unchanged};
+        });
+        job.chunkDone(orderIds.size(), counts[0], counts[1], counts[2]);
+    }
+    
     public Order updatePaymentStatus(Long orderId, Order.PaymentStatus status) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
@@ -140,7 +293,21 @@ public class OrderService {
     }
     
     public Page<Order> getAllOrders(Pageable pageable) {
-        return orderRepository.findAll(pageable);
+        Page<Order> orders = orderRepository.findAll(pageable);
+        initializeOrderItems(orders, false);
+        return orders;
+    }
+    
+    public CursorPage<Order> getAllOrders(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<Order> rows = after == null
+                ? orderRepository.findAllByOrderByCreatedAtDescIdDesc(limit)
+                : orderRepository.findAllBefore(after.createdAt(), after.id(), limit);
+        
+        CursorPage<Order> orders = CursorPage.of(rows, size, order -> new KeysetCursor(order.getCreatedAt(), order.getId()));
+        initializeOrderItems(orders.getContent(), false);
+        return orders;
     }
     
     public long getTotalOrders() {
@@ -150,4 +317,17 @@ public class OrderService {
     public long getPendingOrdersCount() {
         return orderRepository.countByOrderStatus(Order.OrderStatus.PENDING);
     }
+    
+    // Views render outside the session, so listings load their items here; batch fetching
+    // keeps this to one query for the page's items and one for their products
+    private void initializeOrderItems(Iterable<Order> orders, boolean withProducts) {
+        for (Order order : orders) {
+            Hibernate.initialize(order.getOrderItems());
+            if (withProducts) {
+                for (OrderItem orderItem : order.getOrderItems()) {
+                    Hibernate.initialize(orderItem.getProduct());
+                }
+            }
+        }
+    }
 }
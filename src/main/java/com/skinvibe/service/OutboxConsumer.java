@@ -0,0 +1,17 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * In-process handler for outbox events of one type, delivered in batches. A batch that commits is
+ * recorded against the consumer and not delivered to it again; work outside that transaction may
+ * still repeat if the node stops before the commit.
+ */
+public interface OutboxConsumer {
+    
+    String getEventType();
+    
+    void handle(List<OutboxEvent> events);
+}
@@ -0,0 +1,174 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.OutboxEvent;
+import com.skinvibe.repository.OutboxDeliveryRepository;
+import com.skinvibe.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Hands committed outbox events to their consumers in batches, off the request thread. Each
+ * consumer's delivery is recorded with its own work, so retries skip consumers that succeeded.
+ * Relay passes run on outboxRelayExecutor, one thread with room for a single queued pass, so
+ * wake-ups that arrive while a pass is pending are absorbed by it instead of piling up.
+ */
+@Component
+public class OutboxRelay {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private OutboxDeliveryRepository outboxDeliveryRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private List<OutboxConsumer> consumers;
+    
+    @Autowired
+    private ThreadPoolTaskExecutor outboxRelayExecutor;
+    
+    @Value("${skinvibe.outbox.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${skinvibe.outbox.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${skinvibe.outbox.retention:7d}")
+    private Duration retention;
+    
+    // Consumers run in their own transaction so a failure cannot roll back the relay's bookkeeping
+    private TransactionTemplate consumerTransaction;
+    
+    @PostConstruct
+    public void init() {
+        consumerTransaction = new TransactionTemplate(transactionManager);
+        consumerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    public void wakeUp() {
+        outboxRelayExecutor.execute(this::drain);
+    }
+    
+    // Picks up events whose wake-up was lost, e.g. written just before a restart
+    @Scheduled(fixedDelayString = "${skinvibe.outbox.poll-interval:5000}")
+    public void poll() {
+        wakeUp();
+    }
+    
+    @Scheduled(fixedDelayString = "${skinvibe.outbox.cleanup-interval:3600000}")
+    public void deleteProcessedEvents() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxDeliveryRepository.deleteForEventsProcessedBefore(cutoff);
+            outboxEventRepository.deleteProcessedBefore(cutoff);
+        });
+    }
+    
+    private void drain() {
+        try {
+            boolean more;
+            do {
+                more = Boolean.TRUE.equals(transactionTemplate.execute(status -> relayBatch()));
+            } while (more && !outboxRelayExecutor.getThreadPoolExecutor().isShutdown());
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay pass failed", e);
+        }
+    }
+    
+    // Returns whether another full batch may be waiting
+    private boolean relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockPending(maxAttempts, PageRequest.ofSize(batchSize));
+        if (events.isEmpty()) {
+            return false;
+        }
+        
+        List<Long> eventIds = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            eventIds.add(event.getId());
+        }
+        Map<Long, Set<String>> delivered = outboxDeliveryRepository.findConsumersByEventId(eventIds);
+        
+        // A failing batch is retried one event at a time so only the events that fail on their
+        // own stay pending for a later pass
+        Set<OutboxEvent> failed = new HashSet<>();
+        for (OutboxConsumer consumer : consumers) {
+            String name = nameOf(consumer);
+            List<OutboxEvent> batch = new ArrayList<>();
+            for (OutboxEvent event : events) {
+                if (event.getEventType().equals(consumer.getEventType())
+                        && !delivered.getOrDefault(event.getId(), Set.of()).contains(name)) {
+                    batch.add(event);
+                }
+            }
+            if (batch.isEmpty() || deliver(consumer, name, batch, failed) || batch.size() == 1) {
+                continue;
+            }
+            for (OutboxEvent event : batch) {
+                deliver(consumer, name, List.of(event), failed);
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : events) {
+            if (!failed.contains(event)) {
+                event.setProcessedAt(now);
+            }
+        }
+        return failed.isEmpty() && events.size() == batchSize;
+    }
+    
+    private boolean deliver(OutboxConsumer consumer, String name, List<OutboxEvent> batch, Set<OutboxEvent> failed) {
+        List<Long> eventIds = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            eventIds.add(event.getId());
+        }
+        try {
+            consumerTransaction.executeWithoutResult(status -> {
+                consumer.handle(batch);
+                outboxDeliveryRepository.record(eventIds, name, LocalDateTime.now());
+            });
+            return true;
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                return false;
+            }
+            OutboxEvent event = batch.get(0);
+            String error = name + ": " + e.getMessage();
+            log.warn("Outbox event {} failed in {}", event.getId(), name, e);
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            failed.add(event);
+            return false;
+        }
+    }
+    
+    // Stored with each delivery, so it must not change between releases or with proxying
+    private static String nameOf(OutboxConsumer consumer) {
+        return ClassUtils.getUserClass(consumer).getSimpleName();
+    }
+}
@@ -0,0 +1,38 @@
+package com.skinvibe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skinvibe.model.OutboxEvent;
+import com.skinvibe.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class OutboxService {
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private OutboxRelay outboxRelay;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * Records an event in the caller's transaction; it is relayed only if that transaction commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String eventType, Long aggregateId, Object payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(eventType, aggregateId, objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize " + eventType + " event", e);
+        }
+        
+        // Wake the relay right away instead of waiting for its next poll
+        TransactionHooks.afterCommit(outboxRelay::wakeUp);
+    }
+}
@@ -0,0 +1,61 @@
+package com.skinvibe.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks striped by product id. Checkouts touching the same product
+ * queue here instead of piling up on the same database row lock.
+ */
+@Component
+public class ProductLockStripes {
+    
+    private static final int STRIPE_COUNT = 64;
+    
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPE_COUNT];
+    
+    public ProductLockStripes() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+    
+    /**
+     * Locks the stripes of the given products until the current transaction completes.
+     * Stripes are always taken in ascending order so two checkouts can never deadlock.
+     */
+    public void lockUntilCompletion(Collection<Long> productIds) {
+        List<ReentrantLock> locks = lock(productIds);
+        
+        if (!TransactionHooks.afterCompletion(() -> unlock(locks))) {
+            unlock(locks);
+            throw new IllegalStateException("Product locks require an active transaction");
+        }
+    }
+    
+    private List<ReentrantLock> lock(Collection<Long> productIds) {
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Long productId : productIds) {
+            stripeIndexes.add(Math.floorMod(Long.hashCode(productId), STRIPE_COUNT));
+        }
+        
+        List<ReentrantLock> locks = new ArrayList<>(stripeIndexes.size());
+        for (int index : stripeIndexes) {
+            ReentrantLock lock = stripes[index];
+            lock.lock();
+            locks.add(lock);
+        }
+        return locks;
+    }
+    
+    private void unlock(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+}
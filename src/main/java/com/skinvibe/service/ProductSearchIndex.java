@@ -0,0 +1,230 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.Product;
+import com.skinvibe.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, description and ingredients.
+ * Results are ranked with BM25 and the name field is weighted above the others.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int TEXT_WEIGHT = 1;
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // term -> (product id -> weighted term frequency); sorted so query terms can match as prefixes
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    // product id -> term frequencies of the indexed document, kept so a document can be removed
+    private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+
+    private final Map<Long, Integer> documentLengths = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Not a monitor: the load waits on JDBC, and a virtual thread blocked inside synchronized pins its carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private long totalLength;
+
+    private volatile boolean loaded;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureLoaded();
+    }
+
+    /**
+     * Returns the ids of active products matching every term of the query, best match first.
+     */
+    public List<Long> search(String query) {
+        ensureLoaded();
+
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return Collections.emptyList();
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<Long, Double> scores = null;
+            for (String queryTerm : new LinkedHashSet<>(queryTerms)) {
+                Map<Long, Double> termScores = new HashMap<>();
+
+                // Every indexed term starting with the query term counts as a hit
+                for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                    Map<Long, Integer> postingList = entry.getValue();
+                    double idf = Math.log(1 + (documentCount - postingList.size() + 0.5) / (postingList.size() + 0.5));
+                    for (Map.Entry<Long, Integer> posting : postingList.entrySet()) {
+                        int length = documentLengths.get(posting.getKey());
+                        int tf = posting.getValue();
+                        double score = idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * length / averageLength));
+                        termScores.merge(posting.getKey(), score, Double::sum);
+                    }
+                }
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + termScores.get(entry.getKey()));
+                    }
+                }
+
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            List<Long> productIds = new ArrayList<>(ranked.size());
+            for (Map.Entry<Long, Double> entry : ranked) {
+                productIds.add(entry.getKey());
+            }
+            return productIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a product in the index. Inactive products are removed.
+     */
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        if (!Boolean.TRUE.equals(product.getIsActive())) {
+            remove(product.getId());
+            return;
+        }
+
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        addTerms(termFrequencies, product.getName(), NAME_WEIGHT);
+        addTerms(termFrequencies, product.getDescription(), TEXT_WEIGHT);
+        addTerms(termFrequencies, product.getIngredients(), TEXT_WEIGHT);
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>())
+                        .put(product.getId(), entry.getValue());
+                length += entry.getValue();
+            }
+            documents.put(product.getId(), termFrequencies);
+            documentLengths.put(product.getId(), length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            Page<Product> batch;
+            int page = 0;
+            do {
+                batch = productRepository.findAll(PageRequest.of(page++, LOAD_BATCH_SIZE, Sort.by("id")));
+                for (Product product : batch) {
+                    index(product);
+                }
+            } while (batch.hasNext());
+            loaded = true;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void removeDocument(Long productId) {
+        Map<String, Integer> termFrequencies = documents.remove(productId);
+        if (termFrequencies == null) {
+            return;
+        }
+        for (String term : termFrequencies.keySet()) {
+            Map<Long, Integer> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(productId);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= documentLengths.remove(productId);
+    }
+
+    private static void addTerms(Map<String, Integer> termFrequencies, String text, int weight) {
+        for (String token : tokenize(text)) {
+            termFrequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,15 +1,23 @@
 package com.skinvibe.service;
 
+import com.skinvibe.config.CacheConfig;
 import com.skinvibe.model.Product;
+import com.skinvibe.model.ProductCard;
+import com.skinvibe.repository.CartTotalsRepository;
 import com.skinvibe.repository.ProductRepository;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class ProductService {
@@ -17,12 +25,25 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+    
+    @Autowired
+    private CartTotalsRepository cartTotalsRepository;
+    
+    @Autowired
+    private DashboardCounters dashboardCounters;
+    
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
     public List<Product> getAllActiveProducts() {
         return productRepository.findByIsActiveTrue();
     }
     
-    public List<Product> getFeaturedProducts() {
-        return productRepository.findByIsActiveTrueAndIsFeaturedTrue();
+    @Cacheable(CacheConfig.FEATURED_PRODUCTS)
+    public List<ProductCard> getFeaturedProducts() {
+        return productRepository.findFeaturedCards();
     }
     
     public List<Product> getProductsByCategory(Long categoryId) {
@@ -30,51 +51,106 @@ public class ProductService {
     }
     
     public List<Product> searchProducts(String keyword) {
-        return productRepository.searchProducts(keyword);
+        return findAllInOrder(productSearchIndex.search(keyword));
     }
     
-    public Page<Product> searchProducts(String keyword, Pageable pageable) {
-        return productRepository.searchProducts(keyword, pageable);
+    public Page<ProductCard> searchProducts(String keyword, Pageable pageable) {
+        List<Long> productIds = productSearchIndex.search(keyword);
+        
+        // Only the requested page is loaded from the database, in ranked order
+        int start = (int) Math.min(pageable.getOffset(), productIds.size());
+        int end = Math.min(start + pageable.getPageSize(), productIds.size());
+        List<ProductCard> content = findCardsInOrder(productIds.subList(start, end));
+        
+        return new PageImpl<>(content, pageable, productIds.size());
     }
     
-    public Page<Product> getAllActiveProducts(Pageable pageable) {
-        return productRepository.findByIsActiveTrue(pageable);
+    public Page<ProductCard> getAllActiveProducts(Pageable pageable) {
+        return productRepository.findActiveCards(pageable);
     }
     
-    public Page<Product> getProductsByCategory(Long categoryId, Pageable pageable) {
-        return productRepository.findByCategoryIdAndIsActiveTrue(categoryId, pageable);
+    public CursorPage<Product> getAllActiveProducts(String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable limit = PageRequest.ofSize(size + 1);
+        List<Product> rows = after == null
+                ? productRepository.findByIsActiveTrueOrderByCreatedAtDescIdDesc(limit)
+                : productRepository.findActiveBefore(after.createdAt(), after.id(), limit);
+        return CursorPage.of(rows, size, product -> new KeysetCursor(product.getCreatedAt(), product.getId()));
     }
     
-    public Page<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
-        return productRepository.findByPriceBetweenAndIsActiveTrue(minPrice, maxPrice, pageable);
+    public Page<ProductCard> getProductsByCategory(Long categoryId, Pageable pageable) {
+        return productRepository.findActiveCardsByCategoryId(categoryId, pageable);
+    }
+    
+    public Page<ProductCard> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable) {
+        return productRepository.findActiveCardsByPriceBetween(minPrice, maxPrice, pageable);
     }
     
     public List<Product> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
         return productRepository.findByPriceBetweenAndIsActiveTrue(minPrice, maxPrice);
     }
     
+    // A product read from the second-level cache skips the entity graph, so its category is
+    // initialized here, from the category region, while the session is still open
+    @Transactional(readOnly = true)
     public Optional<Product> findById(Long id) {
-        return productRepository.findById(id);
+        Optional<Product> product = productRepository.findById(id);
+        product.ifPresent(p -> Hibernate.initialize(p.getCategory()));
+        return product;
     }
     
+    @CacheEvict(cacheNames = CacheConfig.FEATURED_PRODUCTS, allEntries = true)
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
-    }
-    
+        boolean isNew = product.getId() == null;
+        Product savedProduct = productRepository.save(product);
+        TransactionHooks.afterCommit(() -> productSearchIndex.index(savedProduct));
+        if (isNew) {
+            dashboardCounters.addProducts(1);
+        }
+        catalogVersion.changed();
+        return savedProduct;
+    }
+    
+    @CacheEvict(cacheNames = CacheConfig.FEATURED_PRODUCTS, allEntries = true)
+    @Transactional
     public Product updateProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        // Cart totals priced with the previous price are rebuilt on their next read
+        cartTotalsRepository.deleteByProductId(savedProduct.getId());
+        // The shared index only follows committed rows, so a rollback leaves it untouched
+        TransactionHooks.afterCommit(() -> productSearchIndex.index(savedProduct));
+        catalogVersion.changed();
+        return savedProduct;
     }
     
+    @CacheEvict(cacheNames = CacheConfig.FEATURED_PRODUCTS, allEntries = true)
+    @Transactional
     public void deleteProduct(Long id) {
+        if (!productRepository.existsById(id)) {
+            return;
+        }
+        cartTotalsRepository.deleteByProductId(id);
         productRepository.deleteById(id);
+        TransactionHooks.afterCommit(() -> productSearchIndex.remove(id));
+        dashboardCounters.addProducts(-1);
+        catalogVersion.changed();
+    }
+    
+    public List<Long> decrementStock(Map<Long, Integer> quantitiesByProductId, Long buyerId) {
+        return productRepository.decrementStock(quantitiesByProductId, buyerId);
     }
     
     public List<Product> findByNameContaining(String name) {
         return productRepository.findByNameContainingIgnoreCaseAndIsActiveTrue(name);
     }
     
+    @Transactional(readOnly = true)
     public Product getProductById(Long id) {
-        return productRepository.findById(id).orElse(null);
+        Product product = productRepository.findById(id).orElse(null);
+        if (product != null) {
+            Hibernate.initialize(product.getCategory());
+        }
+        return product;
     }
     
     public Page<Product> getAllProducts(Pageable pageable) {
@@ -84,4 +160,40 @@ public class ProductService {
     public long getTotalProducts() {
         return productRepository.count();
     }
+    
+    private List<Product> findAllInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Product> productsById = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            productsById.put(product.getId(), product);
+        }
+        List<Product> products = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            Product product = productsById.get(productId);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+    
+    private List<ProductCard> findCardsInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ProductCard> cardsById = new HashMap<>();
+        for (ProductCard card : productRepository.findCardsByIdIn(productIds)) {
+            cardsById.put(card.id(), card);
+        }
+        List<ProductCard> cards = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            ProductCard card = cardsById.get(productId);
+            if (card != null) {
+                cards.add(card);
+            }
+        }
+        return cards;
+    }
 }
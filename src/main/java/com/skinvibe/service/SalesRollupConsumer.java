@@ -0,0 +1,34 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Adds placed orders to the sales rollup. Orders already counted are skipped, so redelivered
+ * events are harmless.
+ */
+@Component
+public class SalesRollupConsumer implements OutboxConsumer {
+    
+    @Autowired
+    private SalesRollupService salesRollupService;
+    
+    @Override
+    public String getEventType() {
+        return OrderPlacedEvent.TYPE;
+    }
+    
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        Set<Long> orderIds = new LinkedHashSet<>();
+        for (OutboxEvent event : events) {
+            orderIds.add(event.getAggregateId());
+        }
+        salesRollupService.applyPlacedOrders(orderIds);
+    }
+}
@@ -0,0 +1,164 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.Order;
+import com.skinvibe.repository.SalesRollupRepository;
+import com.skinvibe.repository.SalesRollupRepository.DailySales;
+import com.skinvibe.repository.SalesRollupRepository.ItemSales;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Daily sales aggregates per order status, product and category, kept current as orders are
+ * placed and change status so the admin charts never scan orders. A full rebuild recomputes one
+ * day per transaction, several days in parallel.
+ */
+@Service
+public class SalesRollupService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+    
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private AsyncTaskExecutor salesRollupExecutor;
+    
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    
+    private volatile String lastRebuild;
+    
+    @Transactional
+    public int applyPlacedOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        return salesRollupRepository.addOrders(orderIds, LocalDateTime.now());
+    }
+    
+    /**
+     * Called with the order rows locked, before the new status is saved. Orders not counted yet
+     * are skipped; they are counted under their new status when their placed event arrives.
+     */
+    @Transactional
+    public void orderStatusChanged(Collection<Long> orderIds, Order.OrderStatus from, Order.OrderStatus to) {
+        if (from != to && !orderIds.isEmpty()) {
+            salesRollupRepository.moveOrders(orderIds, from, to);
+        }
+    }
+    
+    /**
+     * Sales per day for the last {@code days} days, today included; days without sales are zero.
+     */
+    public List<DailySales> getDailySales(int days) {
+        LocalDate from = LocalDate.now().minusDays(days - 1);
+        Map<LocalDate, DailySales> salesByDate = new HashMap<>();
+        for (DailySales sales : salesRollupRepository.findDailySales(from)) {
+            salesByDate.put(sales.salesDate(), sales);
+        }
+        List<DailySales> dailySales = new ArrayList<>(days);
+        for (LocalDate day = from; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            dailySales.add(salesByDate.getOrDefault(day, new DailySales(day, 0, 0, BigDecimal.ZERO)));
+        }
+        return dailySales;
+    }
+    
+    public Map<Order.OrderStatus, Long> getOrderCountsByStatus(int days) {
+        Map<Order.OrderStatus, Long> counts = salesRollupRepository.countOrdersByStatus(LocalDate.now().minusDays(days - 1));
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            counts.putIfAbsent(status, 0L);
+        }
+        return counts;
+    }
+    
+    public List<ItemSales> getTopProducts(int days, int limit) {
+        return salesRollupRepository.findTopProducts(LocalDate.now().minusDays(days - 1), limit);
+    }
+    
+    public List<ItemSales> getCategorySales(int days) {
+        return salesRollupRepository.findCategorySales(LocalDate.now().minusDays(days - 1));
+    }
+    
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+    
+    public String getLastRebuild() {
+        return lastRebuild;
+    }
+    
+    /**
+     * Starts a rebuild in the background; returns false if one is already running.
+     */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            salesRollupExecutor.execute(() -> {
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    lastRebuild = "Failed at " + LocalDateTime.now() + ": " + e.getMessage();
+                    log.error("Sales rollup rebuild failed", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            rebuilding.set(false);
+            throw e;
+        }
+        return true;
+    }
+    
+    private void rebuild() throws Exception {
+        Optional<LocalDate[]> range = salesRollupRepository.findOrderDateRange();
+        if (range.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> salesRollupRepository.deleteAll());
+            lastRebuild = "Completed at " + LocalDateTime.now() + ": no orders";
+            return;
+        }
+        LocalDate first = range.get()[0];
+        LocalDate last = range.get()[1];
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> salesRollupRepository.deleteOutside(first, last));
+        
+        // Days are disjoint keys in every rollup table, so day chunks never contend with each other
+        int days = 0;
+        long orders = 0;
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+                LocalDate chunk = day;
+                futures.add(salesRollupExecutor.submit(() -> transactionTemplate.execute(status -> salesRollupRepository.rebuildDay(chunk, now))));
+            }
+            for (Future<Integer> future : futures) {
+                orders += future.get();
+                days++;
+            }
+        } finally {
+            // A failed day leaves the remaining days queued on the shared pool otherwise
+            futures.forEach(future -> future.cancel(true));
+        }
+        long elapsed = System.currentTimeMillis() - started;
+        lastRebuild = "Completed at " + LocalDateTime.now() + ": " + orders + " orders over " + days + " days in " + elapsed + " ms";
+        log.info("Sales rollup rebuilt: {} orders over {} days in {} ms", orders, days, elapsed);
+    }
+}
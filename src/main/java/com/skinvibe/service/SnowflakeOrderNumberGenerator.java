@@ -0,0 +1,59 @@
+package com.skinvibe.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since 2024-01-01, a 10-bit node id and a
+ * 12-bit sequence, written as 13 Crockford base32 characters. Numbers from one node always increase,
+ * so order_number index inserts land at the end, and nodes never collide without coordinating.
+ */
+@Component
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+    
+    private static final String PREFIX = "SKV-";
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+    private static final long EPOCH_MILLIS = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    
+    private final long nodeId;
+    
+    // Last issued (timestamp << SEQUENCE_BITS | sequence); a full sequence rolls into the next millisecond
+    // and a clock that steps back keeps counting from here, so issued values never repeat or go down
+    private final AtomicLong lastTick = new AtomicLong();
+    
+    public SnowflakeOrderNumberGenerator(@Value("${skinvibe.order-number.node-id:0}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("skinvibe.order-number.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+    
+    @Override
+    public String nextOrderNumber() {
+        return PREFIX + encode(nextId());
+    }
+    
+    long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long tick = lastTick.accumulateAndGet(now, (last, clock) -> Math.max(last + 1, clock));
+        long timestamp = tick >>> SEQUENCE_BITS;
+        return timestamp << (NODE_BITS + SEQUENCE_BITS) | nodeId << SEQUENCE_BITS | (tick & SEQUENCE_MASK);
+    }
+    
+    // Fixed width keeps the string order the same as the numeric order
+    static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+}
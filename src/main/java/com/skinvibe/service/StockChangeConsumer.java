@@ -0,0 +1,64 @@
+package com.skinvibe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skinvibe.config.CacheConfig;
+import com.skinvibe.model.OutboxEvent;
+import com.skinvibe.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Moves the catalog stamp after orders took stock, so the catalog pages showing it revalidate, and
+ * evicts the cached featured products when one of them was sold. The search index holds no stock,
+ * so it needs no refresh.
+ */
+@Component
+public class StockChangeConsumer implements OutboxConsumer {
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private CatalogVersion catalogVersion;
+    
+    @Override
+    public String getEventType() {
+        return OrderPlacedEvent.TYPE;
+    }
+    
+    @Override
+    public void handle(List<OutboxEvent> events) {
+        Set<Long> productIds = new HashSet<>();
+        for (OutboxEvent event : events) {
+            try {
+                productIds.addAll(objectMapper.readValue(event.getPayload(), OrderPlacedEvent.class)
+                        .quantitiesByProductId().keySet());
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Could not read order event " + event.getId(), e);
+            }
+        }
+        
+        // One stamp write per relayed batch; doing it in checkout would queue every order on the stamp row
+        if (!productIds.isEmpty()) {
+            catalogVersion.stockChanged();
+        }
+        
+        Cache featuredProducts = cacheManager.getCache(CacheConfig.FEATURED_PRODUCTS);
+        if (featuredProducts != null && !productIds.isEmpty() && productRepository.existsByIdInAndIsFeaturedTrue(productIds)) {
+            featuredProducts.clear();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.CartItem;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.StockReservation;
+import com.skinvibe.repository.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time-limited stock holds taken when the checkout page renders and consumed when the order
+ * is placed. Holds are stored in stock_reservations and mirrored in an in-memory index, so
+ * available-to-sell is a map lookup instead of a scan over carts.
+ */
+@Service
+@Transactional
+public class StockReservationService {
+    
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+    
+    @Autowired
+    private ProductLockStripes productLockStripes;
+    
+    @Value("${skinvibe.reservation.ttl:10m}")
+    private Duration ttl;
+    
+    // product id -> (user id -> hold)
+    private final Map<Long, Map<Long, Hold>> holdsByProduct = new ConcurrentHashMap<>();
+    
+    // user id -> ids of the products the user holds
+    private final Map<Long, Set<Long>> productsByUser = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHolds() {
+        for (StockReservation reservation : stockReservationRepository.findByExpiresAtAfter(LocalDateTime.now())) {
+            putHold(reservation.getUserId(), reservation.getProductId(),
+                    new Hold(reservation.getQuantity(), reservation.getExpiresAt()));
+        }
+    }
+    
+    /**
+     * Replaces the user's holds with one per cart line and returns when they expire. Nothing is
+     * held if other users' holds leave too little stock for any line.
+     */
+    public LocalDateTime reserve(Long userId, Cart cart) {
+        Map<Long, Integer> quantitiesByProductId = new TreeMap<>();
+        Map<Long, Product> productsById = new HashMap<>();
+        for (CartItem cartItem : cart.getItems()) {
+            quantitiesByProductId.merge(cartItem.getProduct().getId(), cartItem.getQuantity(), Integer::sum);
+            productsById.put(cartItem.getProduct().getId(), cartItem.getProduct());
+        }
+        
+        // Holds on the same product are taken one at a time, like checkouts
+        productLockStripes.lockUntilCompletion(quantitiesByProductId.keySet());
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, Integer> entry : quantitiesByProductId.entrySet()) {
+            Product product = productsById.get(entry.getKey());
+            if (product.getStockQuantity() - heldQuantity(product.getId(), userId, now) < entry.getValue()) {
+                throw new RuntimeException("Insufficient stock for product: " + product.getName());
+            }
+        }
+        
+        LocalDateTime expiresAt = now.plus(ttl);
+        List<StockReservation> reservations = new ArrayList<>(quantitiesByProductId.size());
+        for (Map.Entry<Long, Integer> entry : quantitiesByProductId.entrySet()) {
+            reservations.add(new StockReservation(userId, entry.getKey(), entry.getValue(), expiresAt));
+        }
+        stockReservationRepository.deleteByUserId(userId);
+        stockReservationRepository.saveAll(reservations);
+        
+        // The index only ever reflects committed holds
+        TransactionHooks.afterCommit(() -> {
+            removeHolds(userId);
+            for (StockReservation reservation : reservations) {
+                putHold(userId, reservation.getProductId(), new Hold(reservation.getQuantity(), expiresAt));
+            }
+        });
+        return expiresAt;
+    }
+    
+    /**
+     * Drops the user's holds, e.g. once the order they were taken for has decremented the stock.
+     */
+    public void release(Long userId) {
+        stockReservationRepository.deleteByUserId(userId);
+        TransactionHooks.afterCommit(() -> removeHolds(userId));
+    }
+    
+    /**
+     * Stock that can still be sold to anyone: on-hand stock minus all unexpired holds.
+     */
+    public int getAvailableToSell(Product product) {
+        return getAvailableToSell(product, null);
+    }
+    
+    /**
+     * Stock the given user can buy; the user's own holds are not counted against them.
+     */
+    public int getAvailableToSell(Product product, Long userId) {
+        return Math.max(0, product.getStockQuantity() - heldQuantity(product.getId(), userId, LocalDateTime.now()));
+    }
+    
+    @Scheduled(fixedDelayString = "${skinvibe.reservation.sweep-interval:30000}")
+    public void sweepExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        stockReservationRepository.deleteExpired(now);
+        
+        // Expired holds are already ignored by lookups, so the index can drop them right away
+        for (Long productId : holdsByProduct.keySet()) {
+            holdsByProduct.computeIfPresent(productId, (id, holds) -> {
+                holds.entrySet().removeIf(entry -> {
+                    if (entry.getValue().expiresAt().isAfter(now)) {
+                        return false;
+                    }
+                    removeProductOfUser(entry.getKey(), productId);
+                    return true;
+                });
+                return holds.isEmpty() ? null : holds;
+            });
+        }
+    }
+    
+    private int heldQuantity(Long productId, Long excludedUserId, LocalDateTime now) {
+        Map<Long, Hold> holds = holdsByProduct.get(productId);
+        if (holds == null) {
+            return 0;
+        }
+        int held = 0;
+        for (Map.Entry<Long, Hold> entry : holds.entrySet()) {
+            if (!entry.getKey().equals(excludedUserId) && entry.getValue().expiresAt().isAfter(now)) {
+                held += entry.getValue().quantity();
+            }
+        }
+        return held;
+    }
+    
+    private void putHold(Long userId, Long productId, Hold hold) {
+        holdsByProduct.compute(productId, (id, holds) -> {
+            Map<Long, Hold> updated = holds != null ? holds : new ConcurrentHashMap<>();
+            updated.put(userId, hold);
+            return updated;
+        });
+        productsByUser.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(productId);
+    }
+    
+    private void removeHolds(Long userId) {
+        Set<Long> productIds = productsByUser.remove(userId);
+        if (productIds == null) {
+            return;
+        }
+        for (Long productId : productIds) {
+            holdsByProduct.computeIfPresent(productId, (id, holds) -> {
+                holds.remove(userId);
+                return holds.isEmpty() ? null : holds;
+            });
+        }
+    }
+    
+    private void removeProductOfUser(Long userId, Long productId) {
+        productsByUser.computeIfPresent(userId, (id, productIds) -> {
+            productIds.remove(productId);
+            return productIds.isEmpty() ? null : productIds;
+        });
+    }
+    
+    private record Hold(int quantity, LocalDateTime expiresAt) {
+    }
+}
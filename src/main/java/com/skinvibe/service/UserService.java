@@ -14,13 +14,21 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private DashboardCounters dashboardCounters;
+    
     public User saveUser(User user) {
+        boolean isNew = user.getId() == null;
         // Simple password hashing - in production, use BCrypt
         user.setPassword(hashPassword(user.getPassword()));
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        if (isNew) {
+            dashboardCounters.addUsers(1);
+        }
+        return savedUser;
     }
     
-    private String hashPassword(String password) {
+    public String hashPassword(String password) {
         // Simple hash for demo purposes - in production, use BCrypt
         return String.valueOf(password.hashCode());
     }
@@ -50,6 +58,11 @@ public class UserService {
         return userRepository.save(user);
     }
     
+    // Proxy for associating rows with a user without loading it
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+    
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
@@ -59,7 +72,10 @@ public class UserService {
     }
     
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        if (userRepository.existsById(id)) {
+            userRepository.deleteById(id);
+            dashboardCounters.addUsers(-1);
+        }
     }
     
     public long getTotalUsers() {
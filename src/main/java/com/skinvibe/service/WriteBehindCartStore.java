@@ -0,0 +1,317 @@
+package com.skinvibe.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.skinvibe.model.CartItem;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.User;
+import com.skinvibe.repository.CartItemRepository;
+import com.skinvibe.repository.CartTotalsRepository;
+import com.skinvibe.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Cart store holding active carts in memory and writing them to cart_items behind the request.
+ * Dirty carts are flushed in batches on a schedule and at shutdown, so a crash loses at most one
+ * flush interval of cart changes. Clearing a cart (checkout) is written through immediately.
+ * Idle carts are evicted least-recently-used; dirty ones are parked until the next flush.
+ */
+@Component
+@ConditionalOnProperty(name = "skinvibe.cart.store", havingValue = "memory")
+public class WriteBehindCartStore implements CartStore {
+    
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    
+    @Autowired
+    private CartTotalsRepository cartTotalsRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${skinvibe.cart.memory.max-carts:10000}")
+    private long maxCarts;
+    
+    @Value("${skinvibe.cart.memory.idle-timeout:30m}")
+    private Duration idleTimeout;
+    
+    @Value("${skinvibe.cart.memory.flush-batch-size:200}")
+    private int flushBatchSize;
+    
+    private Cache<Long, MemoryCart> carts;
+    
+    // Dirty carts evicted before their last change was flushed
+    private final Map<Long, MemoryCart> evicted = new ConcurrentHashMap<>();
+    
+    // Flushes hold it across their transactions; a monitor would pin a virtual thread to its carrier meanwhile
+    private final ReentrantLock flushLock = new ReentrantLock();
+    
+    @PostConstruct
+    public void init() {
+        carts = Caffeine.newBuilder()
+                .maximumSize(maxCarts)
+                .expireAfterAccess(idleTimeout)
+                .evictionListener((Long userId, MemoryCart cart, RemovalCause cause) -> {
+                    if (cart != null && cart.isDirty()) {
+                        evicted.put(userId, cart);
+                    }
+                })
+                .build();
+    }
+    
+    @Override
+    public Cart getCart(Long userId) {
+        Map<Long, Integer> lines = cart(userId).snapshot().lines();
+        if (lines.isEmpty()) {
+            return new Cart(Collections.emptyList());
+        }
+        
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productRepository.findByIdIn(lines.keySet())) {
+            products.put(product.getId(), product);
+        }
+        User user = userService.getReference(userId);
+        List<CartItem> items = new ArrayList<>(lines.size());
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            Product product = products.get(line.getKey());
+            // Lines of products deleted since they were added are skipped, and dropped at the next flush
+            if (product != null) {
+                items.add(new CartItem(user, product, line.getValue()));
+            }
+        }
+        return new Cart(items);
+    }
+    
+    @Override
+    public void add(Long userId, Product product, int quantity) {
+        mutate(userId, cart -> cart.add(product.getId(), quantity));
+    }
+    
+    @Override
+    public void setQuantity(Long userId, Product product, int quantity) {
+        mutate(userId, cart -> {
+            if (!cart.set(product.getId(), quantity)) {
+                throw new RuntimeException("Cart item not found");
+            }
+        });
+    }
+    
+    @Override
+    public void remove(Long userId, Long productId) {
+        mutate(userId, cart -> {
+            if (!cart.remove(productId)) {
+                throw new RuntimeException("Cart item not found");
+            }
+        });
+    }
+    
+    @Override
+    public void clear(Long userId) {
+        cartItemRepository.deleteByUserId(userId);
+        cartTotalsRepository.reset(userId);
+        
+        // The in-memory cart is emptied only once the checkout that cleared it has committed
+        TransactionHooks.afterCommit(() -> mutate(userId, MemoryCart::clear));
+    }
+    
+    @Override
+    public int getLineCount(Long userId) {
+        return cart(userId).lineCount();
+    }
+    
+    @Override
+    public BigDecimal getTotal(Long userId) {
+        return getCart(userId).getTotal();
+    }
+    
+    @Scheduled(fixedDelayString = "${skinvibe.cart.memory.flush-interval:5000}")
+    public void flushScheduled() {
+        flush();
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    /**
+     * Writes every dirty cart to cart_items, {@code flushBatchSize} carts per transaction.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+    
+    private void flushPending() {
+        List<PendingFlush> pending = new ArrayList<>();
+        carts.asMap().forEach((userId, cart) -> {
+            if (cart.isDirty()) {
+                pending.add(new PendingFlush(userId, cart, cart.snapshot(), false));
+            }
+        });
+        evicted.forEach((userId, cart) -> {
+            if (cart.isDirty()) {
+                pending.add(new PendingFlush(userId, cart, cart.snapshot(), true));
+            } else {
+                evicted.remove(userId, cart);
+            }
+        });
+        
+        for (int from = 0; from < pending.size(); from += flushBatchSize) {
+            List<PendingFlush> batch = pending.subList(from, Math.min(pending.size(), from + flushBatchSize));
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+            for (PendingFlush flushed : batch) {
+                flushed.cart().markFlushed(flushed.snapshot().version());
+                if (flushed.evicted() && !flushed.cart().isDirty()) {
+                    evicted.remove(flushed.userId(), flushed.cart());
+                }
+            }
+        }
+    }
+    
+    private void write(List<PendingFlush> batch) {
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (PendingFlush flush : batch) {
+            userIds.add(flush.userId());
+            productIds.addAll(flush.snapshot().lines().keySet());
+        }
+        Set<Long> existingProductIds = productIds.isEmpty()
+                ? Collections.emptySet() : new HashSet<>(productRepository.findExistingIds(productIds));
+        
+        cartItemRepository.deleteByUserIdIn(userIds);
+        List<CartItem> items = new ArrayList<>();
+        for (PendingFlush flush : batch) {
+            User user = userService.getReference(flush.userId());
+            for (Map.Entry<Long, Integer> line : flush.snapshot().lines().entrySet()) {
+                if (existingProductIds.contains(line.getKey())) {
+                    items.add(new CartItem(user, productRepository.getReferenceById(line.getKey()), line.getValue()));
+                }
+            }
+        }
+        cartItemRepository.saveAll(items);
+        
+        // Totals are rebuilt from cart_items when the database store reads them next
+        cartTotalsRepository.deleteByUserIdIn(userIds);
+    }
+    
+    // The stored lines are read before entering the cache's per-key lock, which is a monitor: a virtual
+    // thread waiting on JDBC inside it would pin its carrier. A concurrent load may make the read redundant
+    private MemoryCart cart(Long userId) {
+        MemoryCart cart = carts.getIfPresent(userId);
+        if (cart != null) {
+            return cart;
+        }
+        List<CartItem> stored = cartItemRepository.findByUserId(userId);
+        return carts.get(userId, id -> restore(id, stored));
+    }
+    
+    // Runs inside the cache's per-key compute, so changes to one user's cart are serialized and
+    // the cart cannot be evicted halfway through a change; a cart evicted in between is loaded again
+    private void mutate(Long userId, Consumer<MemoryCart> change) {
+        MemoryCart changed;
+        do {
+            cart(userId);
+            changed = carts.asMap().computeIfPresent(userId, (id, cart) -> {
+                change.accept(cart);
+                return cart;
+            });
+        } while (changed == null);
+    }
+    
+    private MemoryCart restore(Long userId, List<CartItem> stored) {
+        MemoryCart parked = evicted.remove(userId);
+        if (parked != null) {
+            return parked;
+        }
+        MemoryCart cart = new MemoryCart();
+        for (CartItem item : stored) {
+            cart.lines.put(item.getProduct().getId(), item.getQuantity());
+        }
+        return cart;
+    }
+    
+    private record Snapshot(Map<Long, Integer> lines, long version) {
+    }
+    
+    private record PendingFlush(Long userId, MemoryCart cart, Snapshot snapshot, boolean evicted) {
+    }
+    
+    private static final class MemoryCart {
+        
+        // product id -> quantity, in the order products were added
+        private final Map<Long, Integer> lines = new LinkedHashMap<>();
+        
+        private long version;
+        
+        private long flushedVersion;
+        
+        synchronized void add(Long productId, int quantity) {
+            lines.merge(productId, quantity, Integer::sum);
+            version++;
+        }
+        
+        synchronized boolean set(Long productId, int quantity) {
+            if (!lines.containsKey(productId)) {
+                return false;
+            }
+            lines.put(productId, quantity);
+            version++;
+            return true;
+        }
+        
+        synchronized boolean remove(Long productId) {
+            if (lines.remove(productId) == null) {
+                return false;
+            }
+            version++;
+            return true;
+        }
+        
+        synchronized void clear() {
+            lines.clear();
+            version++;
+        }
+        
+        synchronized int lineCount() {
+            return lines.size();
+        }
+        
+        synchronized Snapshot snapshot() {
+            return new Snapshot(new LinkedHashMap<>(lines), version);
+        }
+        
+        synchronized boolean isDirty() {
+            return version != flushedVersion;
+        }
+        
+        synchronized void markFlushed(long flushed) {
+            flushedVersion = Math.max(flushedVersion, flushed);
+        }
+    }
+}
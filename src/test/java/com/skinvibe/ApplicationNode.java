@@ -0,0 +1,133 @@
+package com.skinvibe;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application started in a JVM of its own on the test profile, for tests about several nodes
+ * or about what survives a restart. Nodes share state only through the database and files given.
+ */
+public final class ApplicationNode implements AutoCloseable {
+    
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    
+    private final Process process;
+    
+    private final int port;
+    
+    private final Path log;
+    
+    private ApplicationNode(Process process, int port, Path log) {
+        this.process = process;
+        this.port = port;
+        this.log = log;
+    }
+    
+    // Returns once the node serves requests; properties are name=value pairs on top of the test profile
+    public static ApplicationNode start(Path log, String... properties) throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "-Dspring.devtools.restart.enabled=false",
+                SkinVibeApplication.class.getName(),
+                "--spring.profiles.active=test",
+                "--server.port=" + port));
+        for (String property : properties) {
+            command.add("--" + property);
+        }
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        ApplicationNode node = new ApplicationNode(process, port, log);
+        node.awaitStarted();
+        return node;
+    }
+    
+    public HttpResponse<String> get(String path, String cookie) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(path)).GET(), cookie);
+    }
+    
+    public HttpResponse<String> post(String path, String form, String cookie) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)), cookie);
+    }
+    
+    // Signs in and returns the session cookie to send with later requests
+    public String login(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = post("/auth/login", "username=" + username + "&password=" + password, null);
+        return response.headers().allValues("Set-Cookie").stream()
+                .filter(header -> header.startsWith("SESSION="))
+                .map(header -> header.substring(0, header.indexOf(';')))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Login as " + username + " failed with " + response.statusCode()));
+    }
+    
+    // Ends the JVM without running shutdown hooks, as a crash or kill -9 would
+    public void kill() throws InterruptedException {
+        process.destroyForcibly();
+        process.waitFor();
+    }
+    
+    // Ends the JVM the way a service manager stops it, running the shutdown hooks
+    public void stop() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+    }
+    
+    // Not declaring InterruptedException keeps try-with-resources free of a checked close()
+    @Override
+    public void close() {
+        if (process.isAlive()) {
+            try {
+                kill();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private HttpResponse<String> send(HttpRequest.Builder request, String cookie) throws IOException, InterruptedException {
+        if (cookie != null) {
+            request.header("Cookie", cookie);
+        }
+        return HTTP.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+    
+    private void awaitStarted() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new AssertionError("Node on port " + port + " exited:\n" + Files.readString(log));
+            }
+            try {
+                if (get("/auth/login", null).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(250);
+        }
+        kill();
+        throw new AssertionError("Node on port " + port + " did not start:\n" + Files.readString(log));
+    }
+}
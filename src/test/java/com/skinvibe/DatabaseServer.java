@@ -0,0 +1,38 @@
+package com.skinvibe;
+
+import org.h2.tools.Server;
+
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * An H2 database served over TCP from the test JVM, standing in for the MySQL server that
+ * several {@link ApplicationNode}s share. Killing a node leaves it untouched.
+ */
+public final class DatabaseServer implements AutoCloseable {
+    
+    private final Server server;
+    
+    private DatabaseServer(Server server) {
+        this.server = server;
+    }
+    
+    public static DatabaseServer start(Path directory) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        return new DatabaseServer(Server.createTcpServer("-tcpPort", String.valueOf(port),
+                "-baseDir", directory.toString(), "-ifNotExists").start());
+    }
+    
+    public String url() {
+        return "jdbc:h2:tcp://localhost:" + server.getPort() + "/skinvibe;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,YEAR,DAY";
+    }
+    
+    @Override
+    public void close() {
+        server.stop();
+    }
+}
@@ -0,0 +1,111 @@
+package com.skinvibe;
+
+import com.skinvibe.model.Address;
+import com.skinvibe.model.Category;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.User;
+import com.skinvibe.repository.CategoryRepository;
+import com.skinvibe.service.AddressService;
+import com.skinvibe.service.ProductService;
+import com.skinvibe.service.TestOutboxConsumers;
+import com.skinvibe.service.UserService;
+import jakarta.servlet.http.Cookie;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Boots the whole application on the H2 test profile. Every test class shares the one context,
+ * so fixtures are created with unique names and never assume an empty database.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import({SqlStatementCounter.class, TestOutboxConsumers.class})
+public abstract class IntegrationTest {
+    
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    
+    protected static final String PASSWORD = "test123";
+    
+    @Autowired
+    protected UserService userService;
+    
+    @Autowired
+    protected ProductService productService;
+    
+    @Autowired
+    protected AddressService addressService;
+    
+    @Autowired
+    protected CategoryRepository categoryRepository;
+    
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    protected MockMvc mockMvc;
+    
+    protected User createUser() {
+        String username = "user" + SEQUENCE.incrementAndGet() + "-" + System.nanoTime();
+        User user = new User(username, username + "@test.skinvibe.com", PASSWORD, "Test", "Buyer");
+        return userService.saveUser(user);
+    }
+    
+    protected User createAdmin() {
+        User admin = createUser();
+        admin.setRole(User.Role.ADMIN);
+        return userService.updateUser(admin);
+    }
+    
+    // Signs in through the login form and returns the session cookie
+    protected Cookie login(User user) throws Exception {
+        return mockMvc.perform(post("/auth/login")
+                        .param("username", user.getUsername())
+                        .param("password", PASSWORD))
+                .andExpect(status().is3xxRedirection())
+                .andReturn()
+                .getResponse()
+                .getCookie("SESSION");
+    }
+    
+    protected Address createAddress(User user) {
+        Address address = new Address("1 Test Street", "Testville", "TS", "10001", "Testland", user);
+        address.setAddressType(Address.AddressType.SHIPPING);
+        return addressService.saveAddress(address);
+    }
+    
+    protected Product createProduct(int stockQuantity) {
+        Category category = categoryRepository.findAll().get(0);
+        String name = "Test Serum " + SEQUENCE.incrementAndGet();
+        Product product = new Product(name, "A serum made for tests", new BigDecimal("19.99"), stockQuantity, category);
+        product.setSku("TEST-" + SEQUENCE.get() + "-" + System.nanoTime());
+        return productService.saveProduct(product);
+    }
+    
+    // Relay consumers run after commit on their own thread and read the products of each order
+    protected void awaitOutboxRelayed() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox_events WHERE processed_at IS NULL", Integer.class) > 0) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Outbox events still unprocessed after 30s");
+            }
+            Thread.sleep(50);
+        }
+    }
+    
+    protected int stockOf(Long productId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM products WHERE id = ?", Integer.class, productId);
+    }
+}
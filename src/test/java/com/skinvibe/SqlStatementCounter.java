@@ -0,0 +1,82 @@
+package com.skinvibe;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the statements the current thread sends to the database. Every execute call counts once,
+ * and so does every executed batch, however many rows it carries.
+ */
+public class SqlStatementCounter implements BeanPostProcessor {
+    
+    private static final Set<Class<?>> STATEMENT_TYPES = Set.of(Statement.class, PreparedStatement.class, CallableStatement.class);
+    
+    private static final ThreadLocal<List<String>> EXECUTED = ThreadLocal.withInitial(ArrayList::new);
+    
+    public static void reset() {
+        EXECUTED.get().clear();
+    }
+    
+    public static int count() {
+        return EXECUTED.get().size();
+    }
+    
+    public static List<String> statements() {
+        return List.copyOf(EXECUTED.get());
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return counted(Connection.class, super.getConnection(), null);
+            }
+        };
+    }
+    
+    // sql is the text a prepared statement was created with, null for connections and plain statements
+    private static <T> T counted(Class<T> type, T target, String sql) {
+        return type.cast(Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (name.startsWith("execute")) {
+                        EXECUTED.get().add(sql != null ? sql : args != null && args.length > 0 ? String.valueOf(args[0]) : name);
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    if (result != null && STATEMENT_TYPES.contains(method.getReturnType())) {
+                        String statementSql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        return counted(uncheckedType(method.getReturnType()), result, statementSql);
+                    }
+                    return result;
+                }));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Class<Object> uncheckedType(Class<?> type) {
+        return (Class<Object>) type;
+    }
+}
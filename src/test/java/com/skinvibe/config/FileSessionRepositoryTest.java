@@ -0,0 +1,108 @@
+package com.skinvibe.config;
+
+import com.skinvibe.ApplicationNode;
+import com.skinvibe.DatabaseServer;
+import com.skinvibe.model.SessionUser;
+import com.skinvibe.model.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.session.MapSession;
+import org.springframework.web.servlet.FlashMap;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSessionRepositoryTest {
+    
+    @Test
+    @Tag("multi-jvm")
+    void sessionIsSharedBetweenTwoInstances(@TempDir Path temp) throws Exception {
+        // Two separate JVMs on one database and one session directory, as two nodes on one host
+        try (DatabaseServer database = DatabaseServer.start(temp);
+             ApplicationNode first = ApplicationNode.start(temp.resolve("first.log"), nodeProperties(database, temp));
+             ApplicationNode second = ApplicationNode.start(temp.resolve("second.log"), nodeProperties(database, temp))) {
+            String cookie = first.login("testuser", "user123");
+            
+            // Signed in on the first node, the second one serves the order history
+            assertThat(second.get("/orders", cookie).statusCode()).isEqualTo(200);
+            
+            // Signing out on the second node signs out on the first as well
+            second.get("/auth/logout", cookie);
+            HttpResponse<String> afterLogout = first.get("/orders", cookie);
+            assertThat(afterLogout.statusCode()).isEqualTo(302);
+            assertThat(afterLogout.headers().firstValue("Location")).hasValueSatisfying(location -> assertThat(location).endsWith("/auth/login"));
+        }
+    }
+    
+    @Test
+    void attributesRoundTripWithoutJavaSerialization(@TempDir Path temp) {
+        FileSessionRepository first = new FileSessionRepository(temp.resolve("sessions"), Duration.ofMinutes(30));
+        FileSessionRepository second = new FileSessionRepository(temp.resolve("sessions"), Duration.ofMinutes(30));
+        
+        MapSession session = first.createSession();
+        session.setAttribute("user", new SessionUser(7L, "jane", User.Role.ADMIN, "Jane"));
+        FlashMap flashMap = new FlashMap();
+        flashMap.setTargetRequestPath("/cart");
+        flashMap.put("success", "Cart updated successfully!");
+        flashMap.startExpirationPeriod(180);
+        session.setAttribute("flashMaps", new CopyOnWriteArrayList<>(List.of(flashMap)));
+        first.save(session);
+        
+        MapSession loaded = second.findById(session.getId());
+        SessionUser user = loaded.getAttribute("user");
+        assertThat(user.getId()).isEqualTo(7L);
+        assertThat(user.isAdmin()).isTrue();
+        assertThat(user.getDisplayName()).isEqualTo("Jane");
+        List<FlashMap> flashMaps = loaded.getAttribute("flashMaps");
+        assertThat(flashMaps).singleElement().satisfies(loadedFlashMap -> {
+            assertThat(loadedFlashMap.getTargetRequestPath()).isEqualTo("/cart");
+            assertThat(loadedFlashMap.get("success")).isEqualTo("Cart updated successfully!");
+            assertThat(loadedFlashMap.getExpirationTime()).isEqualTo(flashMap.getExpirationTime());
+        });
+    }
+    
+    @Test
+    void attributeOfUnknownTypeIsRejected(@TempDir Path temp) {
+        FileSessionRepository repository = new FileSessionRepository(temp.resolve("sessions"), Duration.ofMinutes(30));
+        MapSession session = repository.createSession();
+        session.setAttribute("cart", new ArrayList<>(List.of(1L)));
+        
+        assertThatThrownBy(() -> repository.save(session))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cart");
+    }
+    
+    @Test
+    void worldWritableDirectoryIsRefused(@TempDir Path temp) throws IOException {
+        Path shared = Files.createDirectory(temp.resolve("shared"));
+        Files.setPosixFilePermissions(shared, PosixFilePermissions.fromString("rwxrwxrwx"));
+        
+        assertThatThrownBy(() -> new FileSessionRepository(shared, Duration.ofMinutes(30)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("world-writable");
+    }
+    
+    @Test
+    void newDirectoryIsPrivate(@TempDir Path temp) throws IOException {
+        Path directory = temp.resolve("app").resolve("sessions");
+        new FileSessionRepository(directory, Duration.ofMinutes(30));
+        
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(directory))).isEqualTo("rwx------");
+    }
+    
+    private static String[] nodeProperties(DatabaseServer database, Path temp) {
+        return new String[]{"spring.datasource.url=" + database.url(),
+                "skinvibe.session.store=file", "skinvibe.session.directory=" + temp.resolve("sessions")};
+    }
+}
@@ -0,0 +1,102 @@
+package com.skinvibe.config;
+
+import com.skinvibe.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReserveConnectionPoolTest extends IntegrationTest {
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${spring.datasource.hikari.maximum-pool-size}")
+    private int maximumPoolSize;
+    
+    @Value("${skinvibe.datasource.reserve-pool-size}")
+    private int reserveSize;
+    
+    @Test
+    void nestedConnectionIsServedFromTheReserveWhenThePoolIsExhausted() throws Exception {
+        ExecutorService holders = Executors.newCachedThreadPool();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Boolean nestedServed = transactionTemplate.execute(status -> {
+                // The transaction holds one main connection; other threads take every other one
+                CountDownLatch allHeld = new CountDownLatch(maximumPoolSize - reserveSize - 1);
+                for (int i = 0; i < maximumPoolSize - reserveSize - 1; i++) {
+                    holders.submit(() -> hold(allHeld, release));
+                }
+                try {
+                    assertThat(allHeld.await(30, TimeUnit.SECONDS)).isTrue();
+                    
+                    // Taken from the main pool, this would wait out the connection timeout
+                    long started = System.nanoTime();
+                    try (Connection nested = dataSource.getConnection()) {
+                        assertThat(nested.isValid(1)).isTrue();
+                    }
+                    return System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            assertThat(nestedServed).isTrue();
+        } finally {
+            release.countDown();
+            holders.shutdown();
+            assertThat(holders.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+    
+    @Test
+    void reserveIsTakenOutOfTheConfiguredPoolSize() throws Exception {
+        ExecutorService holders = Executors.newCachedThreadPool();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            int mainPoolSize = maximumPoolSize - reserveSize;
+            CountDownLatch allHeld = new CountDownLatch(mainPoolSize);
+            for (int i = 0; i < mainPoolSize; i++) {
+                holders.submit(() -> hold(allHeld, release));
+            }
+            assertThat(allHeld.await(30, TimeUnit.SECONDS)).isTrue();
+            
+            // A first connection beyond the main pool waits, although the reserve is idle
+            Future<?> extra = holders.submit(() -> hold(new CountDownLatch(1), new CountDownLatch(0)));
+            Thread.sleep(2000);
+            assertThat(extra.isDone()).isFalse();
+            
+            release.countDown();
+            extra.get(30, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            holders.shutdown();
+            assertThat(holders.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+    
+    // Takes a first connection on the calling thread and keeps it until released
+    private Void hold(CountDownLatch held, CountDownLatch release) throws Exception {
+        Connection connection = dataSource.getConnection();
+        try {
+            held.countDown();
+            release.await();
+        } finally {
+            connection.close();
+        }
+        return null;
+    }
+}
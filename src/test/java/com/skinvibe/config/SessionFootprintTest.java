@@ -0,0 +1,73 @@
+package com.skinvibe.config;
+
+import com.skinvibe.IntegrationTest;
+import com.skinvibe.model.SessionUser;
+import com.skinvibe.model.User;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionFootprintTest extends IntegrationTest {
+    
+    private static final Logger log = LoggerFactory.getLogger(SessionFootprintTest.class);
+    
+    private static final int SESSIONS = 20_000;
+    
+    // Read from the database every time, so no two sessions share a cached entry. The in-memory H2
+    // database hands out the strings it stores, so neither figure counts the column text itself
+    private static final Map<String, Object> UNCACHED = Map.of(
+            "jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS,
+            "jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+    
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Test
+    void sessionUserRetainsAFractionOfTheUserEntity() {
+        User user = createUser();
+        
+        // Each login loads its own detached entity, as the login form did when the entity went into the session
+        long entityBytes = retainedPerSession(() -> load(user.getId()));
+        long principalBytes = retainedPerSession(() -> SessionUser.from(load(user.getId())));
+        log.info("Retained per session: User entity {} bytes, SessionUser {} bytes", entityBytes, principalBytes);
+        
+        assertThat(principalBytes).isLessThan(entityBytes / 3);
+    }
+    
+    private User load(Long id) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(User.class, id, UNCACHED);
+        } finally {
+            entityManager.close();
+        }
+    }
+    
+    // Heap still reachable after a full GC, averaged over SESSIONS attributes held at once
+    private static long retainedPerSession(Supplier<Object> attribute) {
+        Object[] sessions = new Object[SESSIONS];
+        long before = retainedHeap();
+        for (int i = 0; i < SESSIONS; i++) {
+            sessions[i] = attribute.get();
+        }
+        long after = retainedHeap();
+        assertThat(sessions[SESSIONS - 1]).isNotNull();
+        return (after - before) / SESSIONS;
+    }
+    
+    private static long retainedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,70 @@
+package com.skinvibe.controller;
+
+import com.skinvibe.IntegrationTest;
+import com.skinvibe.model.Address;
+import com.skinvibe.model.Order;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.User;
+import com.skinvibe.service.CartService;
+import com.skinvibe.service.OrderService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+class AdminOrderStatusTest extends IntegrationTest {
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    private Cookie admin;
+    
+    private Order order;
+    
+    @BeforeEach
+    void placeOrder() throws Exception {
+        admin = login(createAdmin());
+        Product product = createProduct(10);
+        User buyer = createUser();
+        Address address = createAddress(buyer);
+        cartService.addToCart(buyer.getId(), product.getId(), 1);
+        order = orderService.createOrder(buyer.getId(), address, address, Order.PaymentMethod.CREDIT_CARD, null);
+    }
+    
+    @Test
+    void allowedChangeIsApplied() throws Exception {
+        mockMvc.perform(post("/admin/orders/" + order.getId() + "/status").param("status", "CONFIRMED").cookie(admin))
+                .andExpect(redirectedUrl("/admin/orders/" + order.getId()))
+                .andExpect(flash().attributeCount(0));
+        
+        assertThat(statusOf(order)).isEqualTo("CONFIRMED");
+    }
+    
+    @Test
+    void changeTheWorkflowForbidsIsRefused() throws Exception {
+        mockMvc.perform(post("/admin/orders/" + order.getId() + "/status").param("status", "DELIVERED").cookie(admin))
+                .andExpect(redirectedUrl("/admin/orders/" + order.getId()))
+                .andExpect(flash().attribute("error", "An order that is PENDING cannot become DELIVERED"));
+        
+        assertThat(statusOf(order)).isEqualTo("PENDING");
+    }
+    
+    @Test
+    void missingOrderRedirectsToTheListWithAnError() throws Exception {
+        mockMvc.perform(post("/admin/orders/" + Long.MAX_VALUE + "/status").param("status", "SHIPPED").cookie(admin))
+                .andExpect(redirectedUrl("/admin/orders"))
+                .andExpect(flash().attribute("error", "Order not found"));
+    }
+    
+    private String statusOf(Order order) {
+        return jdbcTemplate.queryForObject("SELECT order_status FROM orders WHERE id = ?", String.class, order.getId());
+    }
+}
@@ -0,0 +1,42 @@
+package com.skinvibe.controller;
+
+import com.skinvibe.IntegrationTest;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.User;
+import com.skinvibe.service.CartService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+class AdminProductEditTest extends IntegrationTest {
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Test
+    void priceEditIsReflectedInCartTotals() throws Exception {
+        Product product = createProduct(10);
+        User buyer = createUser();
+        cartService.addToCart(buyer.getId(), product.getId(), 2);
+        // Read once, so the total priced at 19.99 is stored
+        assertThat(cartService.getCartTotal(buyer.getId())).isEqualByComparingTo("39.98");
+        
+        mockMvc.perform(post("/admin/products/edit/" + product.getId())
+                        .param("name", product.getName())
+                        .param("sku", product.getSku())
+                        .param("description", product.getDescription())
+                        .param("category", product.getCategory().getId().toString())
+                        .param("price", "25.00")
+                        .param("stockQuantity", "10")
+                        .param("isActive", "true")
+                        .cookie(login(createAdmin())))
+                .andExpect(redirectedUrl("/admin/products"));
+        
+        assertThat(cartService.getCartTotal(buyer.getId())).isEqualByComparingTo(new BigDecimal("50.00"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.skinvibe.controller;
+
+import com.skinvibe.IntegrationTest;
+import com.skinvibe.SqlStatementCounter;
+import com.skinvibe.model.Address;
+import com.skinvibe.model.Order;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.User;
+import com.skinvibe.service.CartService;
+import com.skinvibe.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CatalogValidatorTest extends IntegrationTest {
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Test
+    void unchangedCatalogIsAnsweredFromTheStampAlone() throws Exception {
+        Product product = createProduct(10);
+        awaitOutboxRelayed();
+        String etag = etag("/products/" + product.getId());
+        
+        SqlStatementCounter.reset();
+        mockMvc.perform(get("/products/" + product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        // The product comes from the second-level cache; each request reads the stamp row once
+        assertThat(SqlStatementCounter.statements()).hasSize(2).allSatisfy(sql -> assertThat(sql).contains("catalog_stamp"));
+    }
+    
+    @Test
+    void catalogWriteChangesTheTag() throws Exception {
+        Product product = createProduct(10);
+        String before = etag("/products");
+        
+        product.setPrice(product.getPrice().add(BigDecimal.ONE));
+        productService.updateProduct(product);
+        
+        mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, before)).andExpect(status().isOk());
+        assertThat(etag("/products")).isNotEqualTo(before);
+    }
+    
+    @Test
+    void saleChangesTheTagOnceRelayed() throws Exception {
+        Product product = createProduct(10);
+        awaitOutboxRelayed();
+        String before = etag("/products/" + product.getId());
+        
+        User buyer = createUser();
+        Address address = createAddress(buyer);
+        cartService.addToCart(buyer.getId(), product.getId(), 1);
+        orderService.createOrder(buyer.getId(), address, address, Order.PaymentMethod.CREDIT_CARD, null);
+        awaitOutboxRelayed();
+        
+        assertThat(etag("/products/" + product.getId())).isNotEqualTo(before);
+    }
+    
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,125 @@
+package com.skinvibe.controller;
+
+import com.skinvibe.IntegrationTest;
+import com.skinvibe.SqlStatementCounter;
+import com.skinvibe.model.Address;
+import com.skinvibe.model.Order;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.User;
+import com.skinvibe.service.CartService;
+import com.skinvibe.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Each page is rendered for a small and a large data set; the number of statements must not grow
+ * with the rows shown, which would mean lazy loading one row at a time.
+ */
+class PageStatementCountTest extends IntegrationTest {
+    
+    private static final int MANY = 8;
+    private static final int MAX_STATEMENTS = 6;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private final List<Product> products = new ArrayList<>();
+    
+    @BeforeEach
+    void createProducts() {
+        for (int i = 0; i < MANY; i++) {
+            products.add(createProduct(1000));
+        }
+    }
+    
+    @Test
+    void cartPage() throws Exception {
+        User few = createUser();
+        fillCart(few, 1);
+        User many = createUser();
+        fillCart(many, MANY);
+        
+        assertBounded(statements(few, "/cart"), statements(many, "/cart"));
+    }
+    
+    @Test
+    void orderHistoryPage() throws Exception {
+        User few = createUser();
+        placeOrder(few, MANY);
+        User many = createUser();
+        for (int i = 0; i < MANY; i++) {
+            placeOrder(many, MANY);
+        }
+        
+        assertBounded(statements(few, "/orders"), statements(many, "/orders"));
+    }
+    
+    @Test
+    void orderDetailPage() throws Exception {
+        User buyer = createUser();
+        Order small = placeOrder(buyer, 1);
+        Order large = placeOrder(buyer, MANY);
+        
+        assertBounded(statements(buyer, "/orders/" + small.getId()), statements(buyer, "/orders/" + large.getId()));
+    }
+    
+    @Test
+    void adminOrderPages() throws Exception {
+        User buyer = createUser();
+        Order small = placeOrder(buyer, 1);
+        Order large = null;
+        for (int i = 0; i < MANY; i++) {
+            large = placeOrder(buyer, MANY);
+        }
+        User admin = createAdmin();
+        
+        assertBounded(statements(admin, "/admin/orders?size=1"), statements(admin, "/admin/orders?size=" + MANY));
+        assertBounded(statements(admin, "/admin/orders?page=0&size=1"), statements(admin, "/admin/orders?page=0&size=" + MANY));
+        assertBounded(statements(admin, "/admin/orders/" + small.getId()), statements(admin, "/admin/orders/" + large.getId()));
+    }
+    
+    private void assertBounded(List<String> few, List<String> many) {
+        assertThat(few).hasSizeLessThanOrEqualTo(MAX_STATEMENTS);
+        assertThat(many).as("statements for the larger page, against %s", few).hasSameSizeAs(few);
+    }
+    
+    private List<String> statements(User user, String url) throws Exception {
+        awaitOutboxRelayed();
+        Cookie session = login(user);
+        // The first view also builds per-user state such as the cart totals row
+        mockMvc.perform(get(url).cookie(session)).andExpect(status().isOk());
+        // A warm second-level cache would hide rows loaded one at a time
+        entityManagerFactory.getCache().evictAll();
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(url).cookie(session)).andExpect(status().isOk());
+        return SqlStatementCounter.statements();
+    }
+    
+    private void fillCart(User user, int lines) {
+        for (int i = 0; i < lines; i++) {
+            cartService.addToCart(user.getId(), products.get(i).getId(), 1);
+        }
+    }
+    
+    private Order placeOrder(User user, int lines) {
+        Address address = createAddress(user);
+        fillCart(user, lines);
+        return orderService.createOrder(user.getId(), address, address, Order.PaymentMethod.CREDIT_CARD, null);
+    }
+}
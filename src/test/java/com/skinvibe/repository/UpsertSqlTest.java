@@ -0,0 +1,37 @@
+package com.skinvibe.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpsertSqlTest {
+    
+    private static final List<String> KEYS = List.of("sales_date", "product_id");
+    
+    private static final List<String> COLUMNS = List.of("sales_date", "product_id", "units");
+    
+    private static final String SELECT = "SELECT sales_date, product_id, SUM(quantity) AS units FROM staged GROUP BY sales_date, product_id";
+    
+    private static final String UPDATES = "units = sales_daily_product.units + new_row.units";
+    
+    @Test
+    void mysqlReadsTheNewRowFromADerivedTableInsteadOfValues() {
+        String sql = new UpsertSql(true).upsert("sales_daily_product", KEYS, COLUMNS, SELECT, UPDATES);
+        
+        assertThat(sql).isEqualTo("INSERT INTO sales_daily_product (sales_date, product_id, units) SELECT * FROM ("
+                + SELECT + ") AS new_row ON DUPLICATE KEY UPDATE units = sales_daily_product.units + new_row.units");
+        assertThat(sql).doesNotContainIgnoringCase("VALUES(");
+    }
+    
+    @Test
+    void h2MergesOnTheKeyColumns() {
+        String sql = new UpsertSql(false).upsert("sales_daily_product", KEYS, COLUMNS, SELECT, UPDATES);
+        
+        assertThat(sql).isEqualTo("MERGE INTO sales_daily_product USING (" + SELECT + ") AS new_row"
+                + " ON sales_daily_product.sales_date = new_row.sales_date AND sales_daily_product.product_id = new_row.product_id"
+                + " WHEN MATCHED THEN UPDATE SET units = sales_daily_product.units + new_row.units"
+                + " WHEN NOT MATCHED THEN INSERT (sales_date, product_id, units) VALUES (new_row.sales_date, new_row.product_id, new_row.units)");
+    }
+}
@@ -0,0 +1,58 @@
+package com.skinvibe.service;
+
+import com.skinvibe.IntegrationTest;
+import com.skinvibe.SqlStatementCounter;
+import com.skinvibe.model.Address;
+import com.skinvibe.model.Order;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckoutStatementCountTest extends IntegrationTest {
+    
+    private static final int LARGE_CART = 12;
+    private static final int MAX_STATEMENTS = 10;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Test
+    void checkoutIssuesTheSameStatementsWhateverTheCartSize() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < LARGE_CART; i++) {
+            products.add(createProduct(100));
+        }
+        
+        int singleLine = checkoutStatements(products.subList(0, 1));
+        int manyLines = checkoutStatements(products);
+        
+        assertThat(singleLine).isLessThanOrEqualTo(MAX_STATEMENTS);
+        assertThat(manyLines).as("statements for %d cart lines", LARGE_CART).isEqualTo(singleLine);
+    }
+    
+    // The fewest of three checkouts, so an id block fetched by one of them is not counted
+    private int checkoutStatements(List<Product> products) {
+        int fewest = Integer.MAX_VALUE;
+        for (int attempt = 0; attempt < 3; attempt++) {
+            User buyer = createUser();
+            Address address = createAddress(buyer);
+            for (Product product : products) {
+                cartService.addToCart(buyer.getId(), product.getId(), 1);
+            }
+            
+            SqlStatementCounter.reset();
+            orderService.createOrder(buyer.getId(), address, address, Order.PaymentMethod.CREDIT_CARD, null);
+            fewest = Math.min(fewest, SqlStatementCounter.count());
+        }
+        return fewest;
+    }
+}
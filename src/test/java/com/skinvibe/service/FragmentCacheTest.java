@@ -0,0 +1,63 @@
+package com.skinvibe.service;
+
+import com.skinvibe.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FragmentCacheTest extends IntegrationTest {
+    
+    @Autowired
+    private FragmentCache fragmentCache;
+    
+    @Test
+    void catalogWriteOnAnotherNodeIsNotServedStaleOutput() {
+        createProduct(10);
+        String key = UUID.randomUUID().toString();
+        AtomicInteger renders = new AtomicInteger();
+        
+        render(key, renders);
+        render(key, renders);
+        assertThat(renders).hasValue(1);
+        
+        // All another node's write leaves behind here is the shared stamp row
+        jdbcTemplate.update("UPDATE catalog_stamp SET revision = revision + 1, catalog_revision = catalog_revision + 1");
+        render(key, renders);
+        assertThat(renders).hasValue(2);
+    }
+    
+    @Test
+    void saleKeepsCachedOutput() {
+        createProduct(10);
+        String key = UUID.randomUUID().toString();
+        AtomicInteger renders = new AtomicInteger();
+        
+        render(key, renders);
+        jdbcTemplate.update("UPDATE catalog_stamp SET revision = revision + 1");
+        render(key, renders);
+        assertThat(renders).hasValue(1);
+    }
+    
+    // Each call is a request of its own, as the stamp is read once per request
+    private void render(String key, AtomicInteger renders) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), new MockHttpServletResponse()));
+        try {
+            fragmentCache.render(FragmentCache.CATALOG, "categoryNav", key, () -> {
+                renders.incrementAndGet();
+                return Map.of("categories", List.of());
+            });
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.skinvibe.service;
+
+import com.skinvibe.IntegrationTest;
+import com.skinvibe.model.Address;
+import com.skinvibe.model.Order;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyServiceTest extends IntegrationTest {
+    
+    private static final int SUBMISSIONS = 50;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Test
+    void parallelSubmissionsOfOneKeyPlaceOneOrder() throws Exception {
+        Product product = createProduct(10);
+        User buyer = createUser();
+        Address address = createAddress(buyer);
+        cartService.addToCart(buyer.getId(), product.getId(), 1);
+        String key = UUID.randomUUID().toString();
+        
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> submissions = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(SUBMISSIONS);
+        try {
+            for (int i = 0; i < SUBMISSIONS; i++) {
+                submissions.add(executor.submit(() -> {
+                    start.await();
+                    return place(buyer, address, key).getId();
+                }));
+            }
+            start.countDown();
+            
+            Set<Long> orderIds = new HashSet<>();
+            for (Future<Long> submission : submissions) {
+                orderIds.add(submission.get());
+            }
+            assertThat(orderIds).hasSize(1);
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders WHERE user_id = ?", Integer.class, buyer.getId()))
+                    .isEqualTo(1);
+            assertThat(stockOf(product.getId())).isEqualTo(9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void usersMayReuseEachOthersKeys() {
+        Product product = createProduct(10);
+        String key = UUID.randomUUID().toString();
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            User buyer = createUser();
+            cartService.addToCart(buyer.getId(), product.getId(), 1);
+            orderIds.add(place(buyer, createAddress(buyer), key).getId());
+        }
+        
+        assertThat(orderIds).doesNotHaveDuplicates();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys WHERE idempotency_key = ?", Integer.class, key))
+                .isEqualTo(2);
+    }
+    
+    private Order place(User buyer, Address address, String key) {
+        return idempotencyService.placeOnce(buyer.getId(), key, () ->
+                orderService.createOrder(buyer.getId(), address, address, Order.PaymentMethod.CREDIT_CARD, null, key));
+    }
+}
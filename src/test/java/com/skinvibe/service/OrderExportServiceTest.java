@@ -0,0 +1,147 @@
+package com.skinvibe.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skinvibe.repository.OrderExportRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderExportServiceTest {
+    
+    private static final int ORDERS = 1_000_000;
+    private static final int ITEMS_PER_ORDER = 5;
+    private static final int ROWS = ORDERS * ITEMS_PER_ORDER;
+    private static final int SAMPLE_EVERY = 500_000;
+    
+    @Test
+    void textThatASpreadsheetWouldEvaluateIsNeutralized(@TempDir Path temp) throws Exception {
+        SingleConnectionDataSource dataSource = dataSource(temp);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            createTables(jdbcTemplate);
+            jdbcTemplate.update("INSERT INTO users VALUES (1, '@SUM(A1:A9)', 'buyer@test.skinvibe.com')");
+            jdbcTemplate.update("INSERT INTO products VALUES (1, '=HYPERLINK(\"http://evil.test\",\"Serum\")')");
+            jdbcTemplate.update("INSERT INTO orders VALUES (1, 'SV1', TIMESTAMP '2024-01-01 00:00:00', 'DELIVERED', 'PAID', "
+                    + "'CREDIT_CARD', 1, 12.00, 5.00, 1.00, -2.00)");
+            jdbcTemplate.update("INSERT INTO order_items VALUES (1, 1, 1, 1, 8.00, 8.00)");
+            
+            StringWriter writer = new StringWriter();
+            exportService(dataSource).writeCsv(null, null, null, writer);
+            
+            // Negative amounts stay numbers; only text gets the apostrophe
+            assertThat(writer.toString().split("\r\n")[1])
+                    .contains(",'@SUM(A1:A9),")
+                    .contains(",\"'=HYPERLINK(\"\"http://evil.test\"\",\"\"Serum\"\")\",")
+                    .contains(",-2.00,");
+        } finally {
+            dataSource.destroy();
+        }
+    }
+    
+    @Test
+    @Tag("slow")
+    void exportOfFiveMillionRowsKeepsHeapFlat(@TempDir Path temp) throws Exception {
+        SingleConnectionDataSource dataSource = dataSource(temp);
+        try {
+            createOrders(new JdbcTemplate(dataSource));
+            
+            HeapSamplingWriter writer = new HeapSamplingWriter();
+            exportService(dataSource).writeCsv(null, null, null, writer);
+            
+            // Header included; what survives a full GC mid-export is what the export holds on to
+            assertThat(writer.lines).isEqualTo(ROWS + 1);
+            assertThat(writer.maxRetainedGrowth).isLessThan(64L * 1024 * 1024);
+        } finally {
+            dataSource.destroy();
+        }
+    }
+    
+    // A file database of its own: the shared in-memory one would hold every row on the test heap
+    private static SingleConnectionDataSource dataSource(Path temp) {
+        return new SingleConnectionDataSource("jdbc:h2:" + temp.resolve("export")
+                + ";MODE=MySQL;CACHE_SIZE=16384;LAZY_QUERY_EXECUTION=TRUE", "sa", "", true);
+    }
+    
+    private static OrderExportService exportService(SingleConnectionDataSource dataSource) {
+        OrderExportRepository repository = new OrderExportRepository();
+        ReflectionTestUtils.setField(repository, "dataSource", dataSource);
+        ReflectionTestUtils.setField(repository, "fetchSize", 1000);
+        ReflectionTestUtils.invokeMethod(repository, "init");
+        OrderExportService exportService = new OrderExportService();
+        ReflectionTestUtils.setField(exportService, "orderExportRepository", repository);
+        ReflectionTestUtils.setField(exportService, "objectMapper", new ObjectMapper());
+        return exportService;
+    }
+    
+    private static void createTables(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(50), email VARCHAR(100))");
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, name VARCHAR(200))");
+        jdbcTemplate.execute("CREATE TABLE orders (id BIGINT PRIMARY KEY, order_number VARCHAR(50), created_at TIMESTAMP, "
+                + "order_status VARCHAR(20), payment_status VARCHAR(20), payment_method VARCHAR(20), user_id BIGINT, "
+                + "total_amount DECIMAL(10, 2), shipping_cost DECIMAL(10, 2), tax_amount DECIMAL(10, 2), discount_amount DECIMAL(10, 2))");
+        jdbcTemplate.execute("CREATE TABLE order_items (id BIGINT PRIMARY KEY, order_id BIGINT, product_id BIGINT, "
+                + "quantity INT, unit_price DECIMAL(10, 2), total_price DECIMAL(10, 2))");
+    }
+    
+    private static void createOrders(JdbcTemplate jdbcTemplate) {
+        createTables(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO users SELECT x, 'user' || x, 'user' || x || '@test.skinvibe.com' FROM SYSTEM_RANGE(1, 1000)");
+        jdbcTemplate.update("INSERT INTO products SELECT x, 'Serum ' || x FROM SYSTEM_RANGE(1, 100)");
+        jdbcTemplate.update("INSERT INTO orders SELECT x, 'SV' || x, TIMESTAMP '2024-01-01 00:00:00' + x * INTERVAL '1' SECOND, "
+                + "'DELIVERED', 'PAID', 'CREDIT_CARD', MOD(x, 1000) + 1, 99.95, 5.00, 8.00, 0.00 FROM SYSTEM_RANGE(1, " + ORDERS + ")");
+        jdbcTemplate.update("INSERT INTO order_items SELECT x, (x - 1) / " + ITEMS_PER_ORDER + " + 1, MOD(x, 100) + 1, 1, 17.39, 17.39 "
+                + "FROM SYSTEM_RANGE(1, " + ROWS + ")");
+        jdbcTemplate.execute("CREATE INDEX idx_orders_created_at_id ON orders (created_at, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_order_items_order_id ON order_items (order_id)");
+    }
+    
+    // Discards the export, measuring the heap left after a full GC every SAMPLE_EVERY lines
+    private static class HeapSamplingWriter extends Writer {
+        
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        
+        private final long baseline = retainedHeap();
+        
+        private long lines;
+        
+        private long maxRetainedGrowth;
+        
+        @Override
+        public void write(String text, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (text.charAt(i) == '\n' && ++lines % SAMPLE_EVERY == 0) {
+                    maxRetainedGrowth = Math.max(maxRetainedGrowth, retainedHeap() - baseline);
+                }
+            }
+        }
+        
+        @Override
+        public void write(char[] buffer, int off, int len) {
+            write(new String(buffer, off, len), 0, len);
+        }
+        
+        @Override
+        public void flush() {
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        private long retainedHeap() {
+            System.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
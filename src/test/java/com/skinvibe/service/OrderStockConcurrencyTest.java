@@ -0,0 +1,80 @@
+package com.skinvibe.service;
+
+import com.skinvibe.IntegrationTest;
+import com.skinvibe.model.Address;
+import com.skinvibe.model.Order;
+import com.skinvibe.model.Product;
+import com.skinvibe.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStockConcurrencyTest extends IntegrationTest {
+    
+    private static final int CHECKOUTS = 64;
+    private static final int STOCK = 40;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private CartService cartService;
+    
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        Product product = createProduct(STOCK);
+        List<User> buyers = new ArrayList<>();
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            User buyer = createUser();
+            cartService.addToCart(buyer.getId(), product.getId(), 1);
+            buyers.add(buyer);
+            addresses.add(createAddress(buyer));
+        }
+        
+        // All 64 checkouts are released at once and race for 40 units
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> checkouts = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(CHECKOUTS);
+        try {
+            for (int i = 0; i < CHECKOUTS; i++) {
+                User buyer = buyers.get(i);
+                Address address = addresses.get(i);
+                checkouts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        orderService.createOrder(buyer.getId(), address, address, Order.PaymentMethod.CREDIT_CARD, null);
+                        return true;
+                    } catch (RuntimeException e) {
+                        assertThat(e).hasMessageContaining("Insufficient stock");
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            
+            int placed = 0;
+            for (Future<Boolean> checkout : checkouts) {
+                if (checkout.get()) {
+                    placed++;
+                }
+            }
+            
+            Integer sold = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE product_id = ?", Integer.class, product.getId());
+            assertThat(placed).isEqualTo(STOCK);
+            assertThat(sold).isEqualTo(STOCK);
+            assertThat(stockOf(product.getId())).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
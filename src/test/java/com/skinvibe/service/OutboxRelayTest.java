@@ -0,0 +1,42 @@
+package com.skinvibe.service;
+
+import com.skinvibe.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxRelayTest extends IntegrationTest {
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private TestOutboxConsumers.Counting counting;
+    
+    @Autowired
+    private TestOutboxConsumers.Flaky flaky;
+    
+    @Test
+    void retriesReachOnlyTheConsumerThatFailed() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> outboxService.publish(TestOutboxConsumers.EVENT_TYPE, 1L, Map.of()));
+        awaitOutboxRelayed();
+        
+        Long eventId = jdbcTemplate.queryForObject("SELECT id FROM outbox_events WHERE event_type = ?",
+                Long.class, TestOutboxConsumers.EVENT_TYPE);
+        
+        // The flaky consumer failed once and got the event again on the next pass; the other one did not
+        assertThat(flaky.attempts.get(eventId)).isEqualTo(2);
+        assertThat(counting.deliveries.get(eventId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT consumer FROM outbox_deliveries WHERE event_id = ?", String.class, eventId))
+                .containsExactlyInAnyOrder("Counting", "Flaky");
+        assertThat(jdbcTemplate.queryForObject("SELECT attempts FROM outbox_events WHERE id = ?", Integer.class, eventId))
+                .isEqualTo(1);
+    }
+}
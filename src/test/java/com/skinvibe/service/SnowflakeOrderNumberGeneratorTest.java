@@ -0,0 +1,88 @@
+package com.skinvibe.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnowflakeOrderNumberGeneratorTest {
+    
+    private static final int IDS = 10_000_000;
+    private static final int THREADS = 16;
+    
+    @Test
+    void tenMillionConcurrentIdsAreUniqueAndIncreasePerThread() throws Exception {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(7);
+        int perThread = IDS / THREADS;
+        
+        // Ids are kept as longs; ten million order number strings would need several hundred MB
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<long[]>> batches = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                batches.add(executor.submit(() -> {
+                    long[] ids = new long[perThread];
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+            
+            long[] all = new long[perThread * THREADS];
+            int offset = 0;
+            for (Future<long[]> batch : batches) {
+                long[] ids = batch.get();
+                for (int i = 1; i < ids.length; i++) {
+                    assertThat(ids[i]).as("id %d of one thread", i).isGreaterThan(ids[i - 1]);
+                }
+                System.arraycopy(ids, 0, all, offset, ids.length);
+                offset += ids.length;
+            }
+            
+            Arrays.sort(all);
+            for (int i = 1; i < all.length; i++) {
+                if (all[i] == all[i - 1]) {
+                    throw new AssertionError("Duplicate id " + all[i]);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void nodesNeverIssueTheSameId() {
+        SnowflakeOrderNumberGenerator first = new SnowflakeOrderNumberGenerator(1);
+        SnowflakeOrderNumberGenerator second = new SnowflakeOrderNumberGenerator(2);
+        
+        long[] ids = new long[200_000];
+        for (int i = 0; i < ids.length; i += 2) {
+            ids[i] = first.nextId();
+            ids[i + 1] = second.nextId();
+        }
+        assertThat(Arrays.stream(ids).distinct().count()).isEqualTo(ids.length);
+    }
+    
+    @Test
+    void encodingKeepsNumericOrder() {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(0);
+        long previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            long next = generator.nextId();
+            assertThat(SnowflakeOrderNumberGenerator.encode(next)).isGreaterThan(SnowflakeOrderNumberGenerator.encode(previous));
+            previous = next;
+        }
+        assertThat(generator.nextOrderNumber()).matches("SKV-[0-9A-Z]{13}");
+    }
+}
@@ -0,0 +1,65 @@
+package com.skinvibe.service;
+
+import com.skinvibe.model.OutboxEvent;
+import org.springframework.context.annotation.Bean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Two consumers of an event type only tests publish: one that counts what it receives and one
+ * that fails the first delivery of every event.
+ */
+public class TestOutboxConsumers {
+    
+    public static final String EVENT_TYPE = "TestEvent";
+    
+    @Bean
+    public Counting countingTestConsumer() {
+        return new Counting();
+    }
+    
+    @Bean
+    public Flaky flakyTestConsumer() {
+        return new Flaky();
+    }
+    
+    public static class Counting implements OutboxConsumer {
+        
+        // event id -> deliveries
+        public final Map<Long, Integer> deliveries = new ConcurrentHashMap<>();
+        
+        @Override
+        public String getEventType() {
+            return EVENT_TYPE;
+        }
+        
+        @Override
+        public void handle(List<OutboxEvent> events) {
+            for (OutboxEvent event : events) {
+                deliveries.merge(event.getId(), 1, Integer::sum);
+            }
+        }
+    }
+    
+    public static class Flaky implements OutboxConsumer {
+        
+        // event id -> deliveries attempted
+        public final Map<Long, Integer> attempts = new ConcurrentHashMap<>();
+        
+        @Override
+        public String getEventType() {
+            return EVENT_TYPE;
+        }
+        
+        @Override
+        public void handle(List<OutboxEvent> events) {
+            for (OutboxEvent event : events) {
+                if (attempts.merge(event.getId(), 1, Integer::sum) == 1) {
+                    throw new RuntimeException("Failing delivery of event " + event.getId());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.skinvibe.service;
+
+import com.skinvibe.ApplicationNode;
+import com.skinvibe.DatabaseServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.web.util.HtmlUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("multi-jvm")
+class WriteBehindCartStoreTest {
+    
+    @Test
+    void flushedCartsSurviveCrashAndShutdownFlushesTheRest(@TempDir Path temp) throws Exception {
+        try (DatabaseServer database = DatabaseServer.start(temp)) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(database.url(), "sa", ""));
+            String[] properties = {"spring.datasource.url=" + database.url(), "skinvibe.cart.store=memory"};
+            
+            Long userId;
+            List<Long> productIds;
+            try (ApplicationNode node = ApplicationNode.start(temp.resolve("crashed.log"), with(properties, "skinvibe.cart.memory.flush-interval=200"))) {
+                userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'testuser'", Long.class);
+                productIds = jdbcTemplate.queryForList("SELECT id FROM products ORDER BY id LIMIT 2", Long.class);
+                String cookie = node.login("testuser", "user123");
+                node.post("/cart/add", "productId=" + productIds.get(0) + "&quantity=2", cookie);
+                
+                // The change reaches cart_items on the schedule, with no shutdown to flush it
+                awaitCart(jdbcTemplate, userId, Map.of(productIds.get(0), 2));
+                node.kill();
+            }
+            
+            // Flushed only at shutdown from here on
+            try (ApplicationNode node = ApplicationNode.start(temp.resolve("restarted.log"), with(properties, "skinvibe.cart.memory.flush-interval=3600000"))) {
+                String cookie = node.login("testuser", "user123");
+                String productName = jdbcTemplate.queryForObject("SELECT name FROM products WHERE id = ?", String.class, productIds.get(0));
+                assertThat(node.get("/cart", cookie).body()).contains(HtmlUtils.htmlEscape(productName));
+                
+                node.post("/cart/add", "productId=" + productIds.get(1) + "&quantity=1", cookie);
+                assertThat(cart(jdbcTemplate, userId)).isEqualTo(Map.of(productIds.get(0), 2));
+                node.stop();
+            }
+            assertThat(cart(jdbcTemplate, userId)).isEqualTo(Map.of(productIds.get(0), 2, productIds.get(1), 1));
+        }
+    }
+    
+    private static String[] with(String[] properties, String property) {
+        String[] all = Arrays.copyOf(properties, properties.length + 1);
+        all[properties.length] = property;
+        return all;
+    }
+    
+    private static void awaitCart(JdbcTemplate jdbcTemplate, Long userId, Map<Long, Integer> expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!cart(jdbcTemplate, userId).equals(expected)) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Cart was never flushed: " + cart(jdbcTemplate, userId));
+            }
+            Thread.sleep(100);
+        }
+    }
+    
+    private static Map<Long, Integer> cart(JdbcTemplate jdbcTemplate, Long userId) {
+        return jdbcTemplate.query("SELECT product_id, quantity FROM cart_items WHERE user_id = ?",
+                rs -> {
+                    Map<Long, Integer> lines = new HashMap<>();
+                    while (rs.next()) {
+                        lines.put(rs.getLong(1), rs.getInt(2));
+                    }
+                    return lines;
+                }, userId);
+    }
+}